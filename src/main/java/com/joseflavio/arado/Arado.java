@@ -1,25 +1,73 @@
 package com.joseflavio.arado;
 
+import com.joseflavio.arado.journal.Journal;
+import com.joseflavio.arado.mirror.TransferReport;
+import com.joseflavio.arado.search.TextIndex;
+
 import javax.swing.*;
+import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static javax.swing.JOptionPane.ERROR_MESSAGE;
+import static javax.swing.JOptionPane.INFORMATION_MESSAGE;
+import static javax.swing.JOptionPane.WARNING_MESSAGE;
 import static javax.swing.JOptionPane.showMessageDialog;
 
 public class Arado {
 
+    private static final String EXPORT_COMMAND = "export";
+    private static final String EXPORT_USAGE = "Usage: java -jar arado.jar export <sequence> <destination>";
+    private static final String LIST_COMMAND = "list";
+    private static final String LIST_USAGE = "Usage: java -jar arado.jar list";
+    private static final DateTimeFormatter LIST_TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final String SEARCH_COMMAND = "search";
+    private static final String SEARCH_USAGE = "Usage: java -jar arado.jar search <directory> <terms>...";
+
     public static void main(String[] args) {
 
+        if (args.length > 0 && EXPORT_COMMAND.equals(args[0])) {
+            exportFromJournal(args);
+            return;
+        }
+
+        if (args.length > 0 && LIST_COMMAND.equals(args[0])) {
+            listJournal(args);
+            return;
+        }
+
+        if (args.length > 0 && SEARCH_COMMAND.equals(args[0])) {
+            searchText(args);
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
 
             try {
 
                 var configuration = new Configuration();
                 var clipboardManager = new ClipboardManager();
-                var fileChooser = new SwingFileChooser();
+                var fileChooser = configuration.isNioFileChooser() ? new NioFileChooser() : new SwingFileChooser();
                 var dataTransfer = new DataTransfer(configuration, clipboardManager, fileChooser);
 
-                dataTransfer.saveClipboardContentAsFile();
+                if (configuration.isJournalStorage()) {
+                    try (var journal = openJournal(configuration)) {
+                        long sequence = dataTransfer.saveClipboardContentToJournal(journal);
+                        var message = "Saved to the journal as record " + sequence;
+                        showMessageDialog(null, message, "Journal", INFORMATION_MESSAGE);
+                    }
+                } else {
+                    dataTransfer.saveClipboardContentAsFile();
+                    reportSkippedDuplicate(dataTransfer.getSkippedDuplicate());
+                    reportTransfers(dataTransfer.getTransferReports());
+                    reportWarnings(dataTransfer.getWarnings());
+                }
                 
             } catch (IOException e) {
                 handleError(e);
@@ -27,6 +75,105 @@ public class Arado {
         });
     }
 
+    private static void exportFromJournal(String[] args) {
+
+        if (args.length != 3) {
+            System.err.println(EXPORT_USAGE);
+            System.exit(1);
+        }
+
+        try (var journal = openJournal(new Configuration())) {
+            var file = journal.export(Long.parseLong(args[1]), new File(args[2]));
+            System.out.println(file.getAbsolutePath());
+        } catch (NumberFormatException e) {
+            System.err.println(EXPORT_USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void listJournal(String[] args) {
+
+        if (args.length != 1) {
+            System.err.println(LIST_USAGE);
+            System.exit(1);
+        }
+
+        try (var journal = openJournal(new Configuration())) {
+            long count = journal.getRecordCount();
+            for (long sequence = 1; sequence <= count; sequence++) {
+                var record = journal.read(sequence);
+                var timestamp = LIST_TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(record.getTimestamp()));
+                System.out.println(sequence + "\t" + timestamp + "\t" + record.getName());
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void searchText(String[] args) {
+
+        if (args.length < 3) {
+            System.err.println(SEARCH_USAGE);
+            System.exit(1);
+        }
+
+        try {
+            var query = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
+            for (var file : TextIndex.searchTree(new File(args[1]), query)) {
+                System.out.println(file.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static Journal openJournal(Configuration configuration) throws IOException {
+
+        return new Journal(configuration.getJournalDirectory(), configuration.getJournalSegmentSize());
+    }
+
+    // Every destination is shown with its throughput. A mirror still being written is not a failure yet:
+    // if it fails later, the next save reports it.
+    private static void reportTransfers(List<TransferReport> transferReports) {
+
+        if (transferReports.isEmpty()) {
+            return;
+        }
+
+        var summary = transferReports.stream()
+            .map(TransferReport::toString)
+            .collect(Collectors.joining("\n"));
+
+        if (transferReports.stream().anyMatch(report -> report.getError() != null)) {
+            showMessageDialog(null, "Could not complete every destination:\n" + summary, "Warning", WARNING_MESSAGE);
+        } else if (transferReports.stream().anyMatch(TransferReport::isPending)) {
+            var message = "Still writing in the background; a failure will be reported by the next save:\n" + summary;
+            showMessageDialog(null, message, "Transfers", INFORMATION_MESSAGE);
+        } else {
+            showMessageDialog(null, "Saved to every destination:\n" + summary, "Transfers", INFORMATION_MESSAGE);
+        }
+    }
+
+    private static void reportSkippedDuplicate(File similarFile) {
+
+        if (similarFile != null) {
+            var message = "Not saved: a similar image is already saved as\n" + similarFile.getAbsolutePath();
+            showMessageDialog(null, message, "Duplicate image", INFORMATION_MESSAGE);
+        }
+    }
+
+    private static void reportWarnings(List<String> warnings) {
+
+        if (! warnings.isEmpty()) {
+            showMessageDialog(null, String.join("\n", warnings), "Warning", WARNING_MESSAGE);
+        }
+    }
+
     private static void handleError(IOException e) {
 
         showMessageDialog(null, e.getMessage(), "Error", ERROR_MESSAGE);
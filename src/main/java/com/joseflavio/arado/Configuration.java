@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class Configuration {
@@ -12,8 +14,26 @@ public class Configuration {
 
     private static final String ARADO_DESCRIPTION = "Arado Clipboard Utility";
     private static final String LAST_DIRECTORY_KEY = "last_directory";
+    private static final String FILE_CHOOSER_KEY = "file_chooser";
+    private static final String STORAGE_KEY = "storage";
+    private static final String JOURNAL_DIRECTORY_KEY = "journal_directory";
+    private static final String JOURNAL_SEGMENT_SIZE_KEY = "journal_segment_size";
+    private static final String MAX_IMAGE_WIDTH_KEY = "max_image_width";
+    private static final String MAX_IMAGE_HEIGHT_KEY = "max_image_height";
+    private static final String SHARD_SIZE_KEY = "shard_size";
+    private static final String MIRROR_DIRECTORIES_KEY = "mirror_directories";
+    private static final String OFF_HEAP_IMAGE_PIXELS_KEY = "off_heap_image_pixels";
+    private static final String DUPLICATE_IMAGE_DISTANCE_KEY = "duplicate_image_distance";
+    private static final String DUPLICATE_IMAGE_ACTION_KEY = "duplicate_image_action";
     private static final String USER_HOME = "user.home";
 
+    private static final String NIO_FILE_CHOOSER = "nio";
+    private static final String JOURNAL_STORAGE = "journal";
+    private static final String SKIP_DUPLICATE_IMAGE_ACTION = "skip";
+    private static final String DEFAULT_JOURNAL_DIRECTORY_NAME = "arado-journal";
+    private static final String MIRROR_FAILURE_FILE_NAME = ".arado-mirror-failures";
+    private static final long DEFAULT_JOURNAL_SEGMENT_SIZE = 64L * 1024 * 1024;
+
     private final File baseDirectory;
 
     private final Properties properties;
@@ -68,4 +88,98 @@ public class Configuration {
         }
     }
 
+    public boolean isNioFileChooser() {
+
+        return NIO_FILE_CHOOSER.equalsIgnoreCase(properties.getProperty(FILE_CHOOSER_KEY, "").trim());
+    }
+
+    public boolean isJournalStorage() {
+
+        return JOURNAL_STORAGE.equalsIgnoreCase(properties.getProperty(STORAGE_KEY, "").trim());
+    }
+
+    public File getJournalDirectory() {
+
+        String journalDirectoryPath = properties.getProperty(JOURNAL_DIRECTORY_KEY);
+        if (journalDirectoryPath != null && ! journalDirectoryPath.isBlank()) {
+            return new File(journalDirectoryPath.trim());
+        }
+        return new File(baseDirectory, DEFAULT_JOURNAL_DIRECTORY_NAME);
+    }
+
+    public long getJournalSegmentSize() throws IOException {
+
+        return getLongProperty(JOURNAL_SEGMENT_SIZE_KEY, DEFAULT_JOURNAL_SEGMENT_SIZE);
+    }
+
+    public int getMaxImageWidth() throws IOException {
+
+        return getIntProperty(MAX_IMAGE_WIDTH_KEY, 0);
+    }
+
+    public int getMaxImageHeight() throws IOException {
+
+        return getIntProperty(MAX_IMAGE_HEIGHT_KEY, 0);
+    }
+
+    public int getShardSize() throws IOException {
+
+        return getIntProperty(SHARD_SIZE_KEY, 0);
+    }
+
+    public List<File> getMirrorDirectories() {
+
+        var mirrorDirectories = new ArrayList<File>();
+        for (var path : properties.getProperty(MIRROR_DIRECTORIES_KEY, "").split(File.pathSeparator)) {
+            if (! path.isBlank()) {
+                mirrorDirectories.add(new File(path.trim()));
+            }
+        }
+        return mirrorDirectories;
+    }
+
+    // Mirrors that fail after the save has returned are listed here until the next save reports them.
+    public File getMirrorFailureFile() {
+
+        return new File(baseDirectory, MIRROR_FAILURE_FILE_NAME);
+    }
+
+    public long getOffHeapImagePixels() throws IOException {
+
+        return getLongProperty(OFF_HEAP_IMAGE_PIXELS_KEY, 0);
+    }
+
+    public int getDuplicateImageDistance() throws IOException {
+
+        return getIntProperty(DUPLICATE_IMAGE_DISTANCE_KEY, 0);
+    }
+
+    public boolean isSkipDuplicateImages() {
+
+        var action = properties.getProperty(DUPLICATE_IMAGE_ACTION_KEY, "").trim();
+        return SKIP_DUPLICATE_IMAGE_ACTION.equalsIgnoreCase(action);
+    }
+
+    private int getIntProperty(String key, int defaultValue) throws IOException {
+
+        long value = getLongProperty(key, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IOException("Invalid value for " + key + " in " + CONFIGURATION_FILE_NAME);
+        }
+        return (int) value;
+    }
+
+    private long getLongProperty(String key, long defaultValue) throws IOException {
+
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid value for " + key + " in " + CONFIGURATION_FILE_NAME);
+        }
+    }
+
 }
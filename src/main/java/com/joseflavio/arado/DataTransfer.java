@@ -1,5 +1,13 @@
 package com.joseflavio.arado;
 
+import com.joseflavio.arado.image.ImageHash;
+import com.joseflavio.arado.image.ImageHashIndex;
+import com.joseflavio.arado.image.ImageScaler;
+import com.joseflavio.arado.image.OffHeapImage;
+import com.joseflavio.arado.journal.Journal;
+import com.joseflavio.arado.mirror.FanOutChannel;
+import com.joseflavio.arado.mirror.TransferReport;
+import com.joseflavio.arado.search.TextIndex;
 import com.joseflavio.arado.strategy.FileStrategy;
 import com.joseflavio.arado.strategy.ImageStrategy;
 import com.joseflavio.arado.strategy.Strategy;
@@ -9,26 +17,36 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import static java.lang.Integer.parseInt;
+import static com.joseflavio.arado.naming.CaptureNames.FILE_NUMBER_FORMAT;
+import static com.joseflavio.arado.naming.CaptureNames.FILE_NUMBER_PATTERN;
+import static com.joseflavio.arado.naming.CaptureNames.SHARD_DIRECTORY_FORMAT;
+import static com.joseflavio.arado.naming.CaptureNames.SHARD_DIRECTORY_PATTERN;
+import static com.joseflavio.arado.naming.CaptureNames.continuesSequence;
+import static java.lang.Long.parseLong;
 import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
-import static java.util.Comparator.naturalOrder;
 
 public class DataTransfer {
 
-    private static final Pattern FILE_NUMBER_PATTERN = Pattern.compile("^(\\d{1,4})[ ._-].*");
-    private static final String FILE_NUMBER_FORMAT = "%04d";
+    private static final String CHOOSE_FILE_TITLE = "Choose destination file";
+    private static final String CHOOSE_FILE_SIMILAR_TITLE = CHOOSE_FILE_TITLE + " (similar to %s)";
 
     private final Configuration configuration;
     private final ClipboardManager clipboardManager;
     private final FileChooser fileChooser;
     private final Map<Class<?>,Class<? extends Strategy>> strategies;
+    private List<TransferReport> transferReports;
+    private List<String> warnings;
+    private File skippedDuplicate;
 
     public DataTransfer(
         Configuration configuration, ClipboardManager clipboardManager, FileChooser fileChooser) {
@@ -37,6 +55,8 @@ public class DataTransfer {
         this.clipboardManager = clipboardManager;
         this.fileChooser = fileChooser;
         this.strategies = new HashMap<>();
+        this.transferReports = List.of();
+        this.warnings = new ArrayList<>();
         this.defineAvailableStrategies();
     }
 
@@ -44,16 +64,37 @@ public class DataTransfer {
 
         try {
 
-            Object data = clipboardManager.getData();
+            transferReports = List.of();
+            warnings = new ArrayList<>();
+            skippedDuplicate = null;
+            reportLateMirrorFailures();
+
+            Object data = spillImage(clipboardManager.getData());
             Strategy strategy = getStrategy(data);
 
             File lastDirectory = configuration.getLastDirectory();
             File suggestedFile = suggestFile(lastDirectory, data, strategy);
-            File destinationFile = fileChooser.chooseFile(suggestedFile, "Choose destination file");
+
+            Long imageHash = hashImage(data);
+            File similarFile = findSimilarImage(imageHash, getIndexDirectory(suggestedFile));
+            if (similarFile != null && configuration.isSkipDuplicateImages()) {
+                skippedDuplicate = similarFile;
+                return null;
+            }
+
+            String title = similarFile == null
+                ? CHOOSE_FILE_TITLE
+                : String.format(CHOOSE_FILE_SIMILAR_TITLE, similarFile.getName());
+            File destinationFile = fileChooser.chooseFile(suggestedFile, title);
 
             if (destinationFile != null) {
+                destinationFile = placeInShard(destinationFile);
                 saveLastDirectory(destinationFile, lastDirectory);
-                strategy.saveToFile(data, destinationFile);
+                data = downscaleImage(data);
+                saveToDestinations(data, strategy, destinationFile);
+                migrateToShards(destinationFile);
+                indexText(data, destinationFile);
+                indexImage(imageHash, destinationFile);
                 return destinationFile;
             }
 
@@ -66,6 +107,87 @@ public class DataTransfer {
         }
     }
 
+    // Reports of the last save, primary destination first; empty when no mirror is configured.
+    public List<TransferReport> getTransferReports() {
+
+        return transferReports;
+    }
+
+    // Problems that did not prevent the last save, such as an index that could not be updated.
+    public List<String> getWarnings() {
+
+        return warnings;
+    }
+
+    // The saved image the last capture was found similar to, when it was skipped instead of saved.
+    public File getSkippedDuplicate() {
+
+        return skippedDuplicate;
+    }
+
+    public long saveClipboardContentToJournal(Journal journal) throws IOException {
+
+        try {
+
+            Object data = spillImage(clipboardManager.getData());
+            Strategy strategy = getStrategy(data);
+            return journal.append(downscaleImage(data), strategy);
+
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void saveToDestinations(Object data, Strategy strategy, File destinationFile) throws IOException {
+
+        var mirrorFiles = getMirrorFiles(destinationFile);
+        if (mirrorFiles.isEmpty()) {
+            strategy.saveToFile(data, destinationFile);
+            return;
+        }
+
+        try (var channel = new FanOutChannel(destinationFile, mirrorFiles, configuration.getMirrorFailureFile())) {
+            strategy.saveToChannel(data, channel);
+            transferReports = channel.finish();
+        }
+    }
+
+    // Mirrors of earlier saves that failed after being reported as pending.
+    private void reportLateMirrorFailures() {
+
+        var failureFile = configuration.getMirrorFailureFile();
+        if (failureFile == null || ! failureFile.isFile()) {
+            return;
+        }
+        try {
+            for (var failure : Files.readAllLines(failureFile.toPath())) {
+                warnings.add("A mirror of an earlier save failed: " + failure);
+            }
+            Files.delete(failureFile.toPath());
+        } catch (IOException e) {
+            warnings.add("Could not read " + failureFile + ": " + e.getMessage());
+        }
+    }
+
+    private List<File> getMirrorFiles(File destinationFile) throws IOException {
+
+        var parent = destinationFile.getParentFile();
+        int shardSize = configuration.getShardSize();
+        boolean sharded = shardSize > 0 && parent != null && isShardDirectory(parent, shardSize);
+
+        var mirrorFiles = new ArrayList<File>();
+        for (var mirrorDirectory : configuration.getMirrorDirectories()) {
+            var targetDirectory = sharded ? new File(mirrorDirectory, parent.getName()) : mirrorDirectory;
+            var mirrorFile = new File(targetDirectory, destinationFile.getName());
+            if (! mirrorFile.getAbsoluteFile().equals(destinationFile.getAbsoluteFile())) {
+                mirrorFiles.add(mirrorFile);
+            }
+        }
+        return mirrorFiles;
+    }
+
     private void defineAvailableStrategies() {
 
         strategies.put(String.class, TextStrategy.class);
@@ -86,33 +208,282 @@ public class DataTransfer {
         String name = strategy.suggestName(data);
         String extension = strategy.suggestFileExtension(data);
 
-        if (FILE_NUMBER_PATTERN.matcher(name).matches()) {
-            return new File(directory, name + "." + extension);
+        int shardSize = configuration.getShardSize();
+        if (shardSize > 0) {
+            directory = getShardRoot(directory, shardSize);
         }
 
-        int number;
+        long lastNumber = findLastCaptureNumber(directory, shardSize);
 
-        try (var pathStream = Files.walk(directory.toPath(), 1, FOLLOW_LINKS)) {
-            number = pathStream
-                .map(Path::toFile)
-                .filter(File::isFile)
-                .map(file -> FILE_NUMBER_PATTERN.matcher(file.getName()))
-                .filter(Matcher::find)
-                .map(matcher -> parseInt(matcher.group(1)))
-                .max(naturalOrder())
-                .map(Math::incrementExact)
-                .orElse(1);
+        // A name that is itself a capture name keeps its number, unless the number does not continue the sequence.
+        var nameMatcher = FILE_NUMBER_PATTERN.matcher(name);
+        if (nameMatcher.matches()) {
+            long nameNumber = parseLong(nameMatcher.group(1));
+            if (continuesSequence(nameNumber, lastNumber)) {
+                return suggestShardedFile(directory, nameNumber, name + "." + extension);
+            }
         }
 
+        long number = Math.incrementExact(lastNumber);
+
         String separator = name.isEmpty() ? "" : " - ";
         String format = FILE_NUMBER_FORMAT + "%s%s.%s";
         String fileName = String.format(format, number, separator, name, extension);
+        return suggestShardedFile(directory, number, fileName);
+    }
+
+    // A shard that does not exist yet is only created when the file is saved, so until then the root is suggested.
+    private File suggestShardedFile(File directory, long number, String fileName) throws IOException {
+
+        int shardSize = configuration.getShardSize();
+        if (shardSize > 0) {
+            var shard = getShardDirectory(directory, number, shardSize);
+            if (shard.isDirectory()) {
+                return new File(shard, fileName);
+            }
+        }
         return new File(directory, fileName);
     }
 
+    // Numbered files chosen directly in the shard root belong in their shard, which is created here.
+    private File placeInShard(File destinationFile) throws IOException {
+
+        int shardSize = configuration.getShardSize();
+        var parent = destinationFile.getParentFile();
+        var matcher = FILE_NUMBER_PATTERN.matcher(destinationFile.getName());
+        if (shardSize <= 0 || parent == null || isShardDirectory(parent, shardSize) || ! matcher.matches()) {
+            return destinationFile;
+        }
+
+        long number = parseLong(matcher.group(1));
+        if (! continuesSequence(number, findLastCaptureNumber(parent, shardSize))) {
+            return destinationFile;
+        }
+
+        var shard = getShardDirectory(parent, number, shardSize);
+        if (! shard.isDirectory() && ! shard.mkdirs()) {
+            throw new IOException("Could not create directory " + shard);
+        }
+        return new File(shard, destinationFile.getName());
+    }
+
+    private static long findLastCaptureNumber(File root, int shardSize) throws IOException {
+
+        long lastNumber = shardSize > 0 ? findLastShardedNumber(root, shardSize) : 0;
+        return findLastNumber(root, lastNumber);
+    }
+
+    private static long findLastNumber(File directory, long highest) throws IOException {
+
+        var captures = listCaptures(directory, highest);
+        return captures.isEmpty() ? highest : Math.max(highest, getCaptureNumber(captures.get(captures.size() - 1)));
+    }
+
+    // Numbered files are taken in ascending order, each checked against the highest number accepted before it.
+    private static List<File> listCaptures(File directory, long highest) throws IOException {
+
+        List<File> files;
+        try (var pathStream = Files.walk(directory.toPath(), 1, FOLLOW_LINKS)) {
+            files = pathStream
+                .map(Path::toFile)
+                .filter(File::isFile)
+                .filter(file -> FILE_NUMBER_PATTERN.matcher(file.getName()).matches())
+                .sorted(Comparator.comparingLong(DataTransfer::getCaptureNumber))
+                .toList();
+        }
+
+        var captures = new ArrayList<File>();
+        for (var file : files) {
+            long number = getCaptureNumber(file);
+            if (continuesSequence(number, highest)) {
+                captures.add(file);
+                highest = Math.max(highest, number);
+            }
+        }
+        return captures;
+    }
+
+    private static long getCaptureNumber(File file) {
+
+        var matcher = FILE_NUMBER_PATTERN.matcher(file.getName());
+        return matcher.matches() ? parseLong(matcher.group(1)) : 0;
+    }
+
+    // Only the newest shard holding a numbered file is scanned.
+    private static long findLastShardedNumber(File root, int shardSize) throws IOException {
+
+        var shards = listShardDirectories(root, shardSize);
+        for (int i = shards.size() - 1; i >= 0; i--) {
+            long first = getShardFirstNumber(shards.get(i));
+            long number = findLastNumber(shards.get(i), first - 1);
+            if (number >= first) {
+                return number;
+            }
+        }
+        return 0;
+    }
+
+    private static List<File> listShardDirectories(File root, int shardSize) {
+
+        var shards = new ArrayList<File>();
+        var files = root.listFiles();
+        if (files != null) {
+            for (var file : files) {
+                if (file.isDirectory() && isShardDirectory(file, shardSize)) {
+                    shards.add(file);
+                }
+            }
+        }
+        shards.sort(Comparator.comparingLong(DataTransfer::getShardFirstNumber));
+        return shards;
+    }
+
+    private static long getShardFirstNumber(File shard) {
+
+        var matcher = SHARD_DIRECTORY_PATTERN.matcher(shard.getName());
+        return matcher.matches() ? parseLong(matcher.group(1)) : 0;
+    }
+
+    private static boolean isShardDirectory(File directory, int shardSize) {
+
+        var matcher = SHARD_DIRECTORY_PATTERN.matcher(directory.getName());
+        if (! matcher.matches()) {
+            return false;
+        }
+        long first = parseLong(matcher.group(1));
+        long last = parseLong(matcher.group(2));
+        return first > 0 && (first - 1) % shardSize == 0 && last - first + 1 == shardSize;
+    }
+
+    private static File getShardRoot(File directory, int shardSize) {
+
+        var parent = directory.getParentFile();
+        return parent != null && isShardDirectory(directory, shardSize) ? parent : directory;
+    }
+
+    private static File getShardDirectory(File root, long number, int shardSize) {
+
+        long first = (number - 1) / shardSize * shardSize + 1;
+        return new File(root, String.format(SHARD_DIRECTORY_FORMAT, first, first + shardSize - 1));
+    }
+
+    // Runs after a confirmed save. Numbered files left directly in the root are renamed into their shards,
+    // so no copy is made; a file whose name is already taken in its shard stays where it is.
+    private void migrateToShards(File destinationFile) throws IOException {
+
+        int shardSize = configuration.getShardSize();
+        var shard = destinationFile.getParentFile();
+        if (shardSize <= 0 || shard == null || ! isShardDirectory(shard, shardSize)) {
+            return;
+        }
+
+        var root = shard.getParentFile();
+        var moves = new LinkedHashMap<File, File>();
+        for (var file : listCaptures(root, findLastShardedNumber(root, shardSize))) {
+            var target = new File(getShardDirectory(root, getCaptureNumber(file), shardSize), file.getName());
+            try {
+                var targetDirectory = target.getParentFile();
+                if (! targetDirectory.isDirectory() && ! targetDirectory.mkdirs()) {
+                    throw new IOException("Could not create directory " + targetDirectory);
+                }
+                Files.move(file.toPath(), target.toPath());
+                moves.put(file, target);
+            } catch (FileAlreadyExistsException e) {
+                warnings.add("Not moved into its shard, a file with the same name exists: " + target);
+            } catch (IOException e) {
+                warnings.add("Could not move " + file + " into its shard: " + e.getMessage());
+            }
+        }
+
+        // Image hashes are kept by relative path, so the moved captures are re-keyed to stay comparable.
+        if (! moves.isEmpty() && ImageHashIndex.exists(root)) {
+            try (var imageHashIndex = ImageHashIndex.load(root)) {
+                imageHashIndex.rename(moves);
+            } catch (IOException e) {
+                warnings.add("Could not update the image index: " + e.getMessage());
+            }
+        }
+    }
+
+    private Object spillImage(Object data) throws IOException {
+
+        long threshold = configuration.getOffHeapImagePixels();
+        if (threshold > 0 && data instanceof BufferedImage) {
+            var image = (BufferedImage) data;
+            if ((long) image.getWidth() * image.getHeight() >= threshold) {
+                return OffHeapImage.spill(image);
+            }
+        }
+        return data;
+    }
+
+    private Object downscaleImage(Object data) throws IOException {
+
+        if (data instanceof BufferedImage) {
+            var imageScaler = new ImageScaler(configuration.getMaxImageWidth(), configuration.getMaxImageHeight());
+            if (imageScaler.isEnabled()) {
+                return imageScaler.scale((BufferedImage) data);
+            }
+        }
+        return data;
+    }
+
+    private Long hashImage(Object data) throws IOException {
+
+        if (data instanceof BufferedImage && configuration.getDuplicateImageDistance() > 0) {
+            return ImageHash.differenceHash((BufferedImage) data);
+        }
+        return null;
+    }
+
+    private File findSimilarImage(Long imageHash, File directory) throws IOException {
+
+        if (imageHash == null || ! ImageHashIndex.exists(directory)) {
+            return null;
+        }
+        try (var imageHashIndex = ImageHashIndex.load(directory)) {
+            return imageHashIndex.findSimilar(imageHash, configuration.getDuplicateImageDistance());
+        }
+    }
+
+    // The capture is already written, so an index failure is reported as a warning instead of an error.
+    private void indexImage(Long imageHash, File destinationFile) {
+
+        if (imageHash != null) {
+            try (var imageHashIndex = ImageHashIndex.load(getIndexDirectory(destinationFile))) {
+                imageHashIndex.add(imageHash, destinationFile);
+            } catch (IOException e) {
+                warnings.add("Could not update the image index: " + e.getMessage());
+            }
+        }
+    }
+
+    // Image hashes of sharded captures are kept in a single index at the shard root, so every shard is compared.
+    private File getIndexDirectory(File file) throws IOException {
+
+        var directory = file.getParentFile();
+        int shardSize = configuration.getShardSize();
+        return shardSize > 0 ? getShardRoot(directory, shardSize) : directory;
+    }
+
+    private void indexText(Object data, File destinationFile) {
+
+        if (data instanceof String && TextIndex.isIndexable(destinationFile)) {
+            try {
+                TextIndex.add(destinationFile, (String) data);
+            } catch (IOException e) {
+                warnings.add("Could not update the text index: " + e.getMessage());
+            }
+        }
+    }
+
     private void saveLastDirectory(File destinationFile, File lastDirectory) throws IOException {
 
         File parentDirectoty = destinationFile.getParentFile();
+        int shardSize = configuration.getShardSize();
+        if (shardSize > 0) {
+            parentDirectoty = getShardRoot(parentDirectoty, shardSize);
+        }
         if (! parentDirectoty.equals(lastDirectory)) {
             configuration.setLastDirectory(parentDirectoty);
         }
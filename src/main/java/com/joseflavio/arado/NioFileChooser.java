@@ -0,0 +1,461 @@
+package com.joseflavio.arado;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static javax.swing.JOptionPane.ERROR_MESSAGE;
+import static javax.swing.JOptionPane.showMessageDialog;
+
+public class NioFileChooser implements FileChooser {
+
+    @Override
+    public File chooseFile(File suggestedFile, String title) {
+
+        var dialog = new ChooserDialog(suggestedFile, title);
+        try {
+            dialog.setVisible(true);
+            return dialog.getSelectedFile();
+        } finally {
+            dialog.dispose();
+        }
+    }
+
+    private static class ChooserDialog extends JDialog {
+
+        private static final long serialVersionUID = 1L;
+        private static final int VISIBLE_ROW_MARGIN = 20;
+        private static final String PROTOTYPE_NAME = "0000 - prototype file name with a reasonable length.txt";
+        private static final String PARENT_DIRECTORY_LABEL = "Up";
+        private static final String SAVE_LABEL = "Save";
+        private static final String CANCEL_LABEL = "Cancel";
+        private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+        private final EntryListModel model;
+        private final JList<Path> list;
+        private final JTextField directoryField;
+        private final JTextField nameField;
+        private final ExecutorService attributeReader;
+        private final Map<Path, BasicFileAttributes> attributes;
+        private final Set<Path> pendingAttributes;
+
+        private volatile Path directory;
+        private DirectoryLister lister;
+        private File selectedFile;
+        private volatile int firstVisibleRow;
+        private volatile int lastVisibleRow;
+
+        public ChooserDialog(File suggestedFile, String title) {
+
+            super((Frame) null, title, true);
+
+            this.model = new EntryListModel();
+            this.list = new JList<>(model);
+            this.directoryField = new JTextField();
+            this.nameField = new JTextField(suggestedFile.getName());
+            this.attributeReader = Executors.newSingleThreadExecutor(runnable -> {
+                var thread = new Thread(runnable, "arado-file-attributes");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.attributes = new ConcurrentHashMap<>();
+            this.pendingAttributes = ConcurrentHashMap.newKeySet();
+            this.lastVisibleRow = Integer.MAX_VALUE;
+
+            buildLayout();
+
+            var parent = suggestedFile.getAbsoluteFile().getParentFile();
+            boolean validParent = parent != null && parent.isDirectory();
+            openDirectory(validParent ? parent.toPath() : Path.of(System.getProperty("user.home")));
+        }
+
+        public File getSelectedFile() {
+
+            return selectedFile;
+        }
+
+        @Override
+        public void dispose() {
+
+            if (lister != null) {
+                lister.cancel(true);
+            }
+            attributeReader.shutdownNow();
+            super.dispose();
+        }
+
+        private void buildLayout() {
+
+            // The prototype fixes the cell width and height, so JList does not measure every entry
+            // and only visible rows are rendered.
+            list.setPrototypeCellValue(Path.of(PROTOTYPE_NAME));
+            list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            list.setCellRenderer(new EntryRenderer());
+            list.addListSelectionListener(event -> {
+                var entry = list.getSelectedValue();
+                if (! event.getValueIsAdjusting() && entry != null) {
+                    nameField.setText(entry.getFileName().toString());
+                }
+            });
+            list.addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent event) {
+                    if (event.getClickCount() == 2) {
+                        activate(list.getSelectedValue());
+                    }
+                }
+            });
+            list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "activate");
+            list.getActionMap().put("activate", action(() -> activate(list.getSelectedValue())));
+
+            var scrollPane = new JScrollPane(list);
+            scrollPane.getViewport().addChangeListener(this::updateVisibleRows);
+
+            var parentButton = new JButton(PARENT_DIRECTORY_LABEL);
+            parentButton.addActionListener(event -> {
+                var parent = directory.getParent();
+                if (parent != null) {
+                    openDirectory(parent);
+                }
+            });
+            directoryField.addActionListener(event -> openDirectory(Path.of(directoryField.getText())));
+
+            var directoryPanel = new JPanel(new BorderLayout(5, 5));
+            directoryPanel.add(directoryField, BorderLayout.CENTER);
+            directoryPanel.add(parentButton, BorderLayout.EAST);
+
+            var saveButton = new JButton(SAVE_LABEL);
+            saveButton.addActionListener(event -> approve());
+            nameField.addActionListener(event -> approve());
+
+            var cancelButton = new JButton(CANCEL_LABEL);
+            cancelButton.addActionListener(event -> setVisible(false));
+
+            var buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+            buttonPanel.add(saveButton);
+            buttonPanel.add(cancelButton);
+
+            var namePanel = new JPanel(new BorderLayout(5, 5));
+            namePanel.add(nameField, BorderLayout.CENTER);
+            namePanel.add(buttonPanel, BorderLayout.EAST);
+
+            var content = new JPanel(new BorderLayout(5, 5));
+            content.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+            content.add(directoryPanel, BorderLayout.NORTH);
+            content.add(scrollPane, BorderLayout.CENTER);
+            content.add(namePanel, BorderLayout.SOUTH);
+
+            getRootPane().setDefaultButton(saveButton);
+            getRootPane().registerKeyboardAction(
+                event -> setVisible(false),
+                KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0),
+                JComponent.WHEN_IN_FOCUSED_WINDOW);
+
+            setContentPane(content);
+            setDefaultCloseOperation(HIDE_ON_CLOSE);
+
+            var screenHeight = (int) Toolkit.getDefaultToolkit().getScreenSize().getHeight();
+            setSize(new Dimension(800, screenHeight));
+            setLocationRelativeTo(null);
+
+            SwingUtilities.invokeLater(nameField::requestFocusInWindow);
+        }
+
+        private void openDirectory(Path newDirectory) {
+
+            if (! Files.isDirectory(newDirectory)) {
+                showMessageDialog(this, "Not a directory: " + newDirectory, "Error", ERROR_MESSAGE);
+                directoryField.setText(directory == null ? "" : directory.toString());
+                return;
+            }
+
+            if (lister != null) {
+                lister.cancel(true);
+            }
+
+            directory = newDirectory.toAbsolutePath().normalize();
+            directoryField.setText(directory.toString());
+            attributes.clear();
+            pendingAttributes.clear();
+            model.clear();
+
+            lister = new DirectoryLister(directory);
+            lister.execute();
+        }
+
+        private void activate(Path entry) {
+
+            if (entry == null) {
+                return;
+            }
+            if (Files.isDirectory(entry)) {
+                openDirectory(entry);
+            } else {
+                nameField.setText(entry.getFileName().toString());
+                approve();
+            }
+        }
+
+        private void approve() {
+
+            var name = nameField.getText().trim();
+            if (name.isEmpty()) {
+                return;
+            }
+
+            var file = new File(name);
+            if (! file.isAbsolute()) {
+                file = new File(directory.toFile(), name);
+            }
+
+            if (file.isDirectory()) {
+                openDirectory(file.toPath());
+                return;
+            }
+
+            selectedFile = file;
+            setVisible(false);
+        }
+
+        private void updateVisibleRows(ChangeEvent event) {
+
+            var visible = list.getVisibleRect();
+            int first = list.locationToIndex(new Point(0, visible.y));
+            int last = list.locationToIndex(new Point(0, visible.y + visible.height));
+            firstVisibleRow = Math.max(0, first - VISIBLE_ROW_MARGIN);
+            lastVisibleRow = last < 0 ? first + VISIBLE_ROW_MARGIN : last + VISIBLE_ROW_MARGIN;
+        }
+
+        private BasicFileAttributes requestAttributes(Path entry, int row) {
+
+            var entryAttributes = attributes.get(entry);
+            if (entryAttributes != null || ! pendingAttributes.add(entry)) {
+                return entryAttributes;
+            }
+
+            var listedDirectory = directory;
+            attributeReader.execute(() -> {
+                try {
+                    // Rows scrolled out of view are skipped; they are requested again when rendered.
+                    if (row < firstVisibleRow || row > lastVisibleRow || ! listedDirectory.equals(directory)) {
+                        return;
+                    }
+                    attributes.put(entry, Files.readAttributes(entry, BasicFileAttributes.class));
+                    SwingUtilities.invokeLater(() -> repaintEntry(entry, row));
+                } catch (IOException e) {
+                    // The entry vanished or is unreadable; it is shown without details.
+                } finally {
+                    pendingAttributes.remove(entry);
+                }
+            });
+
+            return null;
+        }
+
+        private void repaintEntry(Path entry, int row) {
+
+            if (row < model.getSize() && model.getElementAt(row).equals(entry)) {
+                var bounds = list.getCellBounds(row, row);
+                if (bounds != null) {
+                    list.repaint(bounds);
+                }
+            }
+        }
+
+        private static Action action(Runnable runnable) {
+
+            return new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent event) {
+                    runnable.run();
+                }
+            };
+        }
+
+        private static String formatSize(long size) {
+
+            if (size < 1024) {
+                return size + " B";
+            }
+            int exponent = (int) (Math.log(size) / Math.log(1024));
+            return String.format("%.1f %sB", size / Math.pow(1024, exponent), "KMGTPE".charAt(exponent - 1));
+        }
+
+        private class DirectoryLister extends SwingWorker<Void, Path> {
+
+            private final Path listedDirectory;
+
+            public DirectoryLister(Path listedDirectory) {
+
+                this.listedDirectory = listedDirectory;
+            }
+
+            @Override
+            protected Void doInBackground() throws IOException {
+
+                try (var stream = Files.newDirectoryStream(listedDirectory)) {
+                    for (var entry : stream) {
+                        if (isCancelled()) {
+                            break;
+                        }
+                        publish(entry);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<Path> entries) {
+
+                if (! isCancelled()) {
+                    model.addAll(entries);
+                }
+            }
+
+            @Override
+            protected void done() {
+
+                if (isCancelled()) {
+                    return;
+                }
+
+                var selected = list.getSelectedValue();
+                model.sort();
+                if (selected != null) {
+                    list.setSelectedValue(selected, true);
+                }
+
+                try {
+                    get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    var message = "Could not list directory: " + listedDirectory + "\n" + e.getCause().getMessage();
+                    showMessageDialog(ChooserDialog.this, message, "Error", ERROR_MESSAGE);
+                }
+            }
+
+        }
+
+        private class EntryRenderer implements ListCellRenderer<Path> {
+
+            private final JPanel panel;
+            private final JLabel nameLabel;
+            private final JLabel detailsLabel;
+
+            public EntryRenderer() {
+
+                this.nameLabel = new JLabel();
+                this.detailsLabel = new JLabel();
+                this.detailsLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+                this.panel = new JPanel(new BorderLayout(10, 0));
+                this.panel.setBorder(BorderFactory.createEmptyBorder(0, 4, 0, 4));
+                this.panel.add(nameLabel, BorderLayout.CENTER);
+                this.panel.add(detailsLabel, BorderLayout.EAST);
+            }
+
+            @Override
+            public Component getListCellRendererComponent(
+                JList<? extends Path> list, Path entry, int index, boolean selected, boolean focused) {
+
+                var background = selected ? list.getSelectionBackground() : list.getBackground();
+                var foreground = selected ? list.getSelectionForeground() : list.getForeground();
+                panel.setBackground(background);
+                nameLabel.setForeground(foreground);
+                detailsLabel.setForeground(foreground);
+
+                var name = nameOf(entry);
+                var entryAttributes = index < 0 ? null : requestAttributes(entry, index);
+
+                if (entryAttributes == null) {
+                    nameLabel.setText(name);
+                    detailsLabel.setText("");
+                } else if (entryAttributes.isDirectory()) {
+                    nameLabel.setText(name + File.separator);
+                    detailsLabel.setText(DATE_FORMAT.format(entryAttributes.lastModifiedTime().toInstant()));
+                } else {
+                    nameLabel.setText(name);
+                    detailsLabel.setText(formatSize(entryAttributes.size()) + "    "
+                        + DATE_FORMAT.format(entryAttributes.lastModifiedTime().toInstant()));
+                }
+
+                return panel;
+            }
+
+        }
+
+    }
+
+    private static String nameOf(Path entry) {
+
+        return entry.getFileName() == null ? entry.toString() : entry.getFileName().toString();
+    }
+
+    private static class EntryListModel extends AbstractListModel<Path> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> entries = new ArrayList<>();
+
+        @Override
+        public int getSize() {
+
+            return entries.size();
+        }
+
+        @Override
+        public Path getElementAt(int index) {
+
+            return entries.get(index);
+        }
+
+        public void addAll(List<Path> newEntries) {
+
+            if (newEntries.isEmpty()) {
+                return;
+            }
+            int first = entries.size();
+            entries.addAll(newEntries);
+            fireIntervalAdded(this, first, entries.size() - 1);
+        }
+
+        public void clear() {
+
+            int size = entries.size();
+            if (size > 0) {
+                entries.clear();
+                fireIntervalRemoved(this, 0, size - 1);
+            }
+        }
+
+        public void sort() {
+
+            if (entries.size() > 1) {
+                entries.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(nameOf(a), nameOf(b)));
+                fireContentsChanged(this, 0, entries.size() - 1);
+            }
+        }
+
+    }
+
+}
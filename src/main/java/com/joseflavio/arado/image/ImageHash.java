@@ -0,0 +1,77 @@
+package com.joseflavio.arado.image;
+
+import java.awt.image.BufferedImage;
+
+public final class ImageHash {
+
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+    private static final int MAX_SAMPLES_PER_CELL = 16;
+
+    private ImageHash() {
+    }
+
+    // Difference hash: each bit tells whether a cell of a 9x8 grayscale thumbnail is brighter than its right
+    // neighbour, which survives small local changes such as a blinking cursor or a clock.
+    public static long differenceHash(BufferedImage image) {
+
+        var thumbnail = downsample(image);
+        long hash = 0;
+
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH - 1; x++) {
+                hash <<= 1;
+                if (thumbnail[y][x] > thumbnail[y][x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+
+        return hash;
+    }
+
+    public static int distance(long hash1, long hash2) {
+
+        return Long.bitCount(hash1 ^ hash2);
+    }
+
+    private static double[][] downsample(BufferedImage image) {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        var thumbnail = new double[GRID_HEIGHT][GRID_WIDTH];
+
+        for (int cellY = 0; cellY < GRID_HEIGHT; cellY++) {
+
+            int top = cellY * height / GRID_HEIGHT;
+            int bottom = Math.max(top + 1, (cellY + 1) * height / GRID_HEIGHT);
+            int stepY = Math.max(1, (bottom - top) / MAX_SAMPLES_PER_CELL);
+
+            for (int cellX = 0; cellX < GRID_WIDTH; cellX++) {
+
+                int left = cellX * width / GRID_WIDTH;
+                int right = Math.max(left + 1, (cellX + 1) * width / GRID_WIDTH);
+                int stepX = Math.max(1, (right - left) / MAX_SAMPLES_PER_CELL);
+
+                double sum = 0;
+                int count = 0;
+                for (int y = top; y < bottom && y < height; y += stepY) {
+                    for (int x = left; x < right && x < width; x += stepX) {
+                        sum += luminance(image.getRGB(x, y));
+                        count++;
+                    }
+                }
+
+                thumbnail[cellY][cellX] = count == 0 ? 0 : sum / count;
+            }
+        }
+
+        return thumbnail;
+    }
+
+    private static double luminance(int argb) {
+
+        return 0.299 * ((argb >> 16) & 0xFF) + 0.587 * ((argb >> 8) & 0xFF) + 0.114 * (argb & 0xFF);
+    }
+
+}
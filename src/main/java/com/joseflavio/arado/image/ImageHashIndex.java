@@ -0,0 +1,280 @@
+package com.joseflavio.arado.image;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// A BK-tree kept on disk as it is searched: the tree file is a mapped array of fixed-size nodes, each linked to
+// its first child and next sibling, and the names file holds the relative path of every node.
+public class ImageHashIndex implements Closeable {
+
+    static final String INDEX_FILE_NAME = ".arado-image-hash.idx";
+    static final String NAMES_FILE_NAME = ".arado-image-hash.names";
+
+    private static final int INDEX_MAGIC = 0x41494858;
+    private static final int INDEX_VERSION = 2;
+
+    // magic, version, node count, reserved
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4;
+    private static final int COUNT_POSITION = 8;
+    // hash, name offset, first child, next sibling, distance to parent
+    private static final int NODE_SIZE = 8 + 8 + 4 + 4 + 4;
+    private static final int NAME_OFFSET_POSITION = 8;
+    private static final int FIRST_CHILD_POSITION = 16;
+    private static final int NEXT_SIBLING_POSITION = 20;
+    private static final int DISTANCE_POSITION = 24;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int NO_NODE = - 1;
+
+    private final File directory;
+    private final FileChannel indexChannel;
+    private final RandomAccessFile names;
+    private MappedByteBuffer index;
+
+    private ImageHashIndex(File directory) throws IOException {
+
+        this.directory = directory;
+        this.indexChannel = FileChannel.open(new File(directory, INDEX_FILE_NAME).toPath(), CREATE, READ, WRITE);
+        this.names = new RandomAccessFile(new File(directory, NAMES_FILE_NAME), "rw");
+    }
+
+    public static ImageHashIndex load(File directory) throws IOException {
+
+        var imageHashIndex = new ImageHashIndex(directory);
+        try {
+            imageHashIndex.initialize();
+            return imageHashIndex;
+        } catch (IOException e) {
+            imageHashIndex.close();
+            throw e;
+        }
+    }
+
+    public static boolean exists(File directory) {
+
+        return new File(directory, INDEX_FILE_NAME).isFile();
+    }
+
+    // Returns the closest existing file within the distance, or null. Only subtrees whose distance to the query
+    // can still be within the limit are visited, so a lookup does not compare against every hash.
+    public File findSimilar(long hash, int maxDistance) throws IOException {
+
+        if (getCount() == 0) {
+            return null;
+        }
+
+        File best = null;
+        int bestDistance = maxDistance + 1;
+        var pending = new ArrayList<Integer>();
+        pending.add(0);
+
+        while (! pending.isEmpty()) {
+
+            int node = pending.remove(pending.size() - 1);
+            int distance = ImageHash.distance(hash, getHash(node));
+
+            if (distance < bestDistance) {
+                var file = new File(directory, readName(node));
+                if (file.isFile()) {
+                    best = file;
+                    bestDistance = distance;
+                }
+            }
+
+            int limit = Math.min(bestDistance, maxDistance);
+            for (int child = getFirstChild(node); child != NO_NODE; child = getNextSibling(child)) {
+                if (Math.abs(getDistance(child) - distance) <= limit) {
+                    pending.add(child);
+                }
+            }
+        }
+
+        return best;
+    }
+
+    // Files in subdirectories, such as shards, are indexed by their relative path.
+    public void add(long hash, File file) throws IOException {
+
+        var name = relativeName(file);
+        if (name == null) {
+            return;
+        }
+
+        int count = getCount();
+        int parent = NO_NODE;
+        int distance = 0;
+
+        if (count > 0) {
+            int node = 0;
+            while (true) {
+                distance = ImageHash.distance(hash, getHash(node));
+                int child = findChild(node, distance);
+                if (child == NO_NODE) {
+                    parent = node;
+                    break;
+                }
+                node = child;
+            }
+        }
+
+        // The node is written and counted before it is linked, so an interrupted add leaves at most
+        // an unreachable node behind.
+        int position = ensureNode(count);
+        index.putLong(position, hash);
+        index.putLong(position + NAME_OFFSET_POSITION, appendName(name));
+        index.putInt(position + FIRST_CHILD_POSITION, NO_NODE);
+        index.putInt(position + NEXT_SIBLING_POSITION, parent == NO_NODE ? NO_NODE : getFirstChild(parent));
+        index.putInt(position + DISTANCE_POSITION, distance);
+        index.putInt(COUNT_POSITION, count + 1);
+
+        if (parent != NO_NODE) {
+            index.putInt(nodePosition(parent) + FIRST_CHILD_POSITION, count);
+        }
+        index.force();
+    }
+
+    // Points the entries of moved files to their new paths; used when captures are moved into shards.
+    public void rename(Map<File, File> moves) throws IOException {
+
+        var renames = new HashMap<String, String>();
+        for (var move : moves.entrySet()) {
+            var from = relativeName(move.getKey());
+            var to = relativeName(move.getValue());
+            if (from != null && to != null) {
+                renames.put(from, to);
+            }
+        }
+        if (renames.isEmpty()) {
+            return;
+        }
+
+        int count = getCount();
+        for (int node = 0; node < count; node++) {
+            var to = renames.get(readName(node));
+            if (to != null) {
+                index.putLong(nodePosition(node) + NAME_OFFSET_POSITION, appendName(to));
+            }
+        }
+        index.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        try {
+            indexChannel.close();
+        } finally {
+            names.close();
+        }
+    }
+
+    private void initialize() throws IOException {
+
+        long size = indexChannel.size();
+        mapIndex(Math.max(size, HEADER_SIZE + (long) INITIAL_CAPACITY * NODE_SIZE));
+
+        // A missing or unrecognized index starts empty, together with its names file.
+        if (size < HEADER_SIZE || index.getInt(0) != INDEX_MAGIC || index.getInt(4) != INDEX_VERSION) {
+            index.putInt(0, INDEX_MAGIC);
+            index.putInt(4, INDEX_VERSION);
+            index.putInt(COUNT_POSITION, 0);
+            names.setLength(0);
+        }
+    }
+
+    private void mapIndex(long size) throws IOException {
+
+        index = indexChannel.map(READ_WRITE, 0, size);
+    }
+
+    private int ensureNode(int node) throws IOException {
+
+        long position = HEADER_SIZE + (long) node * NODE_SIZE;
+        if (position + NODE_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Image hash index is full");
+        }
+        if (position + NODE_SIZE > index.capacity()) {
+            long doubled = Math.min((long) index.capacity() * 2, Integer.MAX_VALUE);
+            mapIndex(Math.max(doubled, position + NODE_SIZE));
+        }
+        return (int) position;
+    }
+
+    private int findChild(int node, int distance) {
+
+        for (int child = getFirstChild(node); child != NO_NODE; child = getNextSibling(child)) {
+            if (getDistance(child) == distance) {
+                return child;
+            }
+        }
+        return NO_NODE;
+    }
+
+    private int getCount() {
+
+        return index.getInt(COUNT_POSITION);
+    }
+
+    private static int nodePosition(int node) {
+
+        return HEADER_SIZE + node * NODE_SIZE;
+    }
+
+    private long getHash(int node) {
+
+        return index.getLong(nodePosition(node));
+    }
+
+    private int getFirstChild(int node) {
+
+        int child = index.getInt(nodePosition(node) + FIRST_CHILD_POSITION);
+        return child < getCount() ? child : NO_NODE;
+    }
+
+    private int getNextSibling(int node) {
+
+        int sibling = index.getInt(nodePosition(node) + NEXT_SIBLING_POSITION);
+        return sibling < getCount() ? sibling : NO_NODE;
+    }
+
+    private int getDistance(int node) {
+
+        return index.getInt(nodePosition(node) + DISTANCE_POSITION);
+    }
+
+    private String readName(int node) throws IOException {
+
+        names.seek(index.getLong(nodePosition(node) + NAME_OFFSET_POSITION));
+        return names.readUTF();
+    }
+
+    private long appendName(String name) throws IOException {
+
+        long offset = names.length();
+        names.seek(offset);
+        names.writeUTF(name);
+        return offset;
+    }
+
+    private String relativeName(File file) {
+
+        var directoryPath = directory.getAbsoluteFile().toPath();
+        var filePath = file.getAbsoluteFile().toPath();
+        if (! filePath.startsWith(directoryPath) || filePath.equals(directoryPath)) {
+            return null;
+        }
+        return directoryPath.relativize(filePath).toString();
+    }
+
+}
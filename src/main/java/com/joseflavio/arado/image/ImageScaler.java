@@ -0,0 +1,216 @@
+package com.joseflavio.arado.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+
+public class ImageScaler {
+
+    private static final double LANCZOS_RADIUS = 3;
+    private static final int BAND_HEIGHT = 32;
+
+    private final int maxWidth;
+    private final int maxHeight;
+    private final ForkJoinPool pool;
+
+    public ImageScaler(int maxWidth, int maxHeight, ForkJoinPool pool) {
+
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.pool = pool;
+    }
+
+    public ImageScaler(int maxWidth, int maxHeight) {
+
+        this(maxWidth, maxHeight, ForkJoinPool.commonPool());
+    }
+
+    public boolean isEnabled() {
+
+        return maxWidth > 0 || maxHeight > 0;
+    }
+
+    public BufferedImage scale(BufferedImage image) {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        double factor = 1;
+        if (maxWidth > 0 && width > maxWidth) {
+            factor = Math.min(factor, (double) maxWidth / width);
+        }
+        if (maxHeight > 0 && height > maxHeight) {
+            factor = Math.min(factor, (double) maxHeight / height);
+        }
+        if (factor == 1) {
+            return image;
+        }
+
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+        boolean alpha = image.getColorModel().hasAlpha();
+
+        var horizontal = new Filter(width, targetWidth);
+        var vertical = new Filter(height, targetHeight);
+
+        // Intermediate rows are already narrowed, so they stay much smaller than the source.
+        var intermediate = new int[targetWidth * height];
+        pool.invoke(new BandTask(0, height, (from, to) ->
+            scaleRows(image, horizontal, intermediate, targetWidth, from, to)));
+
+        var result = new BufferedImage(targetWidth, targetHeight, alpha ? TYPE_INT_ARGB : TYPE_INT_RGB);
+        var target = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+        pool.invoke(new BandTask(0, targetHeight, (from, to) ->
+            scaleColumns(intermediate, vertical, target, targetWidth, alpha, from, to)));
+
+        return result;
+    }
+
+    private static void scaleRows(
+        BufferedImage image, Filter filter, int[] intermediate, int targetWidth, int from, int to) {
+
+        var row = new int[image.getWidth()];
+
+        for (int y = from; y < to; y++) {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+            int offset = y * targetWidth;
+            for (int x = 0; x < targetWidth; x++) {
+                intermediate[offset + x] = filter.apply(x, row, 0, 1, true);
+            }
+        }
+    }
+
+    private static void scaleColumns(
+        int[] intermediate, Filter filter, int[] target, int targetWidth, boolean alpha, int from, int to) {
+
+        for (int y = from; y < to; y++) {
+            int offset = y * targetWidth;
+            for (int x = 0; x < targetWidth; x++) {
+                int pixel = filter.apply(y, intermediate, x, targetWidth, false);
+                target[offset + x] = alpha ? pixel : pixel | 0xFF000000;
+            }
+        }
+    }
+
+    private static double lanczos(double x) {
+
+        if (x == 0) {
+            return 1;
+        }
+        if (x <= - LANCZOS_RADIUS || x >= LANCZOS_RADIUS) {
+            return 0;
+        }
+        double px = Math.PI * x;
+        return LANCZOS_RADIUS * Math.sin(px) * Math.sin(px / LANCZOS_RADIUS) / (px * px);
+    }
+
+    private static int clamp(double value) {
+
+        return value <= 0 ? 0 : value >= 255 ? 255 : (int) (value + 0.5);
+    }
+
+    private static class Filter {
+
+        private final int[] starts;
+        private final double[][] weights;
+
+        public Filter(int sourceSize, int targetSize) {
+
+            double scale = (double) sourceSize / targetSize;
+            double support = LANCZOS_RADIUS * scale;
+
+            this.starts = new int[targetSize];
+            this.weights = new double[targetSize][];
+
+            for (int i = 0; i < targetSize; i++) {
+
+                double center = (i + 0.5) * scale;
+                int start = Math.max(0, (int) Math.floor(center - support));
+                int end = Math.min(sourceSize, (int) Math.ceil(center + support));
+
+                var kernel = new double[end - start];
+                double sum = 0;
+                for (int j = start; j < end; j++) {
+                    sum += kernel[j - start] = lanczos((j + 0.5 - center) / scale);
+                }
+                for (int j = 0; j < kernel.length; j++) {
+                    kernel[j] /= sum;
+                }
+
+                starts[i] = start;
+                weights[i] = kernel;
+            }
+        }
+
+        // The first pass premultiplies the color channels by alpha and the second one reverts it,
+        // so transparent pixels do not bleed into their neighbours.
+        public int apply(int index, int[] pixels, int offset, int stride, boolean premultiply) {
+
+            var kernel = weights[index];
+            int position = offset + starts[index] * stride;
+            double a = 0, r = 0, g = 0, b = 0;
+
+            for (double weight : kernel) {
+                int pixel = pixels[position];
+                double pixelAlpha = pixel >>> 24;
+                double colorWeight = premultiply ? weight * pixelAlpha / 255 : weight;
+                a += weight * pixelAlpha;
+                r += colorWeight * ((pixel >> 16) & 0xFF);
+                g += colorWeight * ((pixel >> 8) & 0xFF);
+                b += colorWeight * (pixel & 0xFF);
+                position += stride;
+            }
+
+            int alpha = clamp(a);
+            if (premultiply) {
+                return alpha << 24 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+            }
+
+            double unpremultiply = a <= 0 ? 0 : 255 / a;
+            return alpha << 24
+                | clamp(r * unpremultiply) << 16
+                | clamp(g * unpremultiply) << 8
+                | clamp(b * unpremultiply);
+        }
+
+    }
+
+    private interface BandProcessor {
+
+        void process(int from, int to);
+
+    }
+
+    private static class BandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final BandProcessor processor;
+
+        public BandTask(int from, int to, BandProcessor processor) {
+
+            this.from = from;
+            this.to = to;
+            this.processor = processor;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from <= BAND_HEIGHT) {
+                processor.process(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BandTask(from, middle, processor), new BandTask(middle, to, processor));
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.joseflavio.arado.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.ByteOrder.nativeOrder;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public final class OffHeapImage {
+
+    private static final int[] RGB_MASKS = {0xFF0000, 0xFF00, 0xFF};
+    private static final int[] ARGB_MASKS = {0xFF0000, 0xFF00, 0xFF, 0xFF000000};
+    private static final long MAX_MAPPED_BYTES = Integer.MAX_VALUE;
+
+    private OffHeapImage() {
+    }
+
+    // Copies the pixels into a memory-mapped temporary file and returns an image backed by it, so the
+    // heap copy can be released. Encoders read it through the raster like any other BufferedImage.
+    public static BufferedImage spill(BufferedImage image) throws IOException {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long bytes = (long) width * height * Integer.BYTES;
+        if (bytes > MAX_MAPPED_BYTES) {
+            return image;
+        }
+
+        var pixels = map(bytes);
+        var row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            pixels.put(row);
+        }
+
+        boolean alpha = image.getColorModel().hasAlpha();
+        var masks = alpha ? ARGB_MASKS : RGB_MASKS;
+        var colorModel = alpha ? ColorModel.getRGBdefault() : new DirectColorModel(24, masks[0], masks[1], masks[2]);
+        var sampleModel = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT, width, height, masks);
+        var raster = Raster.createWritableRaster(sampleModel, new IntBufferDataBuffer(pixels), null);
+
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+
+    public static boolean isOffHeap(BufferedImage image) {
+
+        return image.getRaster().getDataBuffer() instanceof IntBufferDataBuffer;
+    }
+
+    private static IntBuffer map(long bytes) throws IOException {
+
+        var file = File.createTempFile("arado-image-", ".raw");
+        try (var channel = FileChannel.open(file.toPath(), READ, WRITE)) {
+            return channel.map(READ_WRITE, 0, bytes).order(nativeOrder()).asIntBuffer();
+        } finally {
+            // The mapping outlives both the channel and, where the platform allows it, the file name.
+            if (! file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private static class IntBufferDataBuffer extends DataBuffer {
+
+        private final IntBuffer pixels;
+
+        public IntBufferDataBuffer(IntBuffer pixels) {
+
+            super(TYPE_INT, pixels.capacity());
+            this.pixels = pixels;
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+
+            return pixels.get(i);
+        }
+
+        @Override
+        public void setElem(int bank, int i, int value) {
+
+            pixels.put(i, value);
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.joseflavio.arado.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+class ChecksumChannel implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+    private final CRC32 crc;
+    private long count;
+
+    public ChecksumChannel(WritableByteChannel channel) {
+
+        this.channel = channel;
+        this.crc = new CRC32();
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+
+        var written = source.duplicate();
+        int count = channel.write(source);
+        written.limit(written.position() + count);
+        crc.update(written);
+        this.count += count;
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+
+        return channel.isOpen();
+    }
+
+    // The underlying channel belongs to the caller.
+    @Override
+    public void close() {
+    }
+
+    public long getCount() {
+
+        return count;
+    }
+
+    public int getChecksum() {
+
+        return (int) crc.getValue();
+    }
+
+}
@@ -0,0 +1,463 @@
+package com.joseflavio.arado.journal;
+
+import com.joseflavio.arado.strategy.Strategy;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import static com.joseflavio.arado.strategy.ByteChannels.transferFully;
+import static com.joseflavio.arado.strategy.ByteChannels.writeFully;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public class Journal implements Closeable {
+
+    static final String INDEX_FILE_NAME = "journal.idx";
+
+    private static final Pattern SEGMENT_NAME_PATTERN = Pattern.compile("^(\\d{8})\\.seg$");
+    private static final String SEGMENT_NAME_FORMAT = "%08d.seg";
+    private static final String EXPORT_NAME_FORMAT = "%04d - %s";
+    private static final String EXPORT_NUMBER_FORMAT = "%04d%s";
+
+    private static final int RECORD_MAGIC = 0x4A524E4C;
+    private static final int INDEX_MAGIC = 0x4A494458;
+
+    // magic, type, timestamp, name length
+    private static final int RECORD_FIXED_HEADER_SIZE = 4 + 1 + 8 + 2;
+    // payload length, checksum
+    private static final int RECORD_TRAILER_SIZE = 8 + 4;
+    // magic, reserved, record count
+    private static final int INDEX_HEADER_SIZE = 4 + 4 + 8;
+    // segment, reserved, offset
+    private static final int INDEX_ENTRY_SIZE = 4 + 4 + 8;
+    private static final int INDEX_COUNT_POSITION = 8;
+    private static final int INDEX_INITIAL_CAPACITY = 1024;
+    private static final int MAX_NAME_LENGTH = 0xFFFF;
+    // Payload length of a record whose payload is still being written
+    private static final long UNCOMMITTED_LENGTH = - 1;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final long segmentSizeLimit;
+    private final FileChannel indexChannel;
+    private MappedByteBuffer index;
+
+    public Journal(File directory, long segmentSizeLimit) throws IOException {
+
+        if (! directory.isDirectory() && ! directory.mkdirs()) {
+            throw new IOException("Could not create journal directory");
+        }
+
+        this.directory = directory;
+        this.segmentSizeLimit = segmentSizeLimit;
+        this.indexChannel = FileChannel.open(new File(directory, INDEX_FILE_NAME).toPath(), CREATE, READ, WRITE);
+
+        try {
+            var lock = indexChannel.lock();
+            try {
+                initializeIndex();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    public long append(Object data, Strategy strategy) throws IOException {
+
+        var type = RecordType.of(data);
+        var nameBytes = toNameBytes(suggestRecordName(data, strategy));
+        int headerLength = RECORD_FIXED_HEADER_SIZE + nameBytes.length + RECORD_TRAILER_SIZE;
+
+        var header = ByteBuffer.allocate(headerLength)
+            .putInt(RECORD_MAGIC)
+            .put(type.getCode())
+            .putLong(System.currentTimeMillis())
+            .putShort((short) nameBytes.length)
+            .put(nameBytes)
+            .putLong(UNCOMMITTED_LENGTH)
+            .putInt(0)
+            .flip();
+
+        long recordLength = headerLength + Math.max(0, strategy.estimateSize(data));
+
+        var lock = indexChannel.lock();
+        try {
+
+            long sequence = getCount() + 1;
+            var position = nextPosition(recordLength);
+
+            try (var segmentChannel = openSegment(position.segment(), CREATE, READ, WRITE)) {
+
+                // Discards any partially written record left behind by an interrupted append.
+                segmentChannel.truncate(position.offset());
+                segmentChannel.position(position.offset());
+                writeFully(segmentChannel, header);
+
+                var payloadChannel = new ChecksumChannel(segmentChannel);
+                strategy.saveToChannel(data, payloadChannel);
+                long length = headerLength + payloadChannel.getCount();
+
+                // The estimate was too low: the record is moved to a new segment before it is committed, so a
+                // segment only outgrows the limit when it holds that record alone.
+                if (position.offset() > 0 && position.offset() + length > segmentSizeLimit) {
+                    var nextPosition = new Position(position.segment() + 1, 0);
+                    try (var nextChannel = openSegment(nextPosition.segment(), CREATE, READ, WRITE)) {
+                        nextChannel.truncate(0);
+                        transferFully(segmentChannel, position.offset(), length, nextChannel);
+                        commitRecord(nextChannel, nextPosition, headerLength, payloadChannel);
+                    }
+                    segmentChannel.truncate(position.offset());
+                    position = nextPosition;
+                } else {
+                    commitRecord(segmentChannel, position, headerLength, payloadChannel);
+                }
+            }
+
+            putEntry(sequence, position);
+            setCount(sequence);
+            index.force();
+            return sequence;
+
+        } finally {
+            lock.release();
+        }
+    }
+
+    public long getRecordCount() throws IOException {
+
+        var lock = indexChannel.lock(0, Long.MAX_VALUE, true);
+        try {
+            return getCount();
+        } finally {
+            lock.release();
+        }
+    }
+
+    public JournalRecord read(long sequence) throws IOException {
+
+        var lock = indexChannel.lock(0, Long.MAX_VALUE, true);
+        try {
+            return readIndexed(sequence);
+        } finally {
+            lock.release();
+        }
+    }
+
+    public File export(long sequence, File destination) throws IOException {
+
+        var record = read(sequence);
+        var destinationFile = destination.isDirectory()
+            ? new File(destination, suggestExportName(record))
+            : destination;
+
+        try (var segmentChannel = openSegment(record.getSegment(), READ)) {
+
+            verifyChecksum(segmentChannel, record);
+
+            if (record.getType() == RecordType.FILE) {
+                // File records hold the exact bytes FileStrategy copies, so they go straight to the destination.
+                var destinationPath = destinationFile.toPath();
+                try (var destinationChannel = FileChannel.open(destinationPath, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                    long length = record.getPayloadLength();
+                    transferFully(segmentChannel, record.getPayloadOffset(), length, destinationChannel);
+                }
+            } else {
+                var data = decode(record.getType(), readPayload(segmentChannel, record));
+                record.getType().createStrategy().saveToFile(data, destinationFile);
+            }
+        }
+
+        return destinationFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        indexChannel.close();
+    }
+
+    private Position nextPosition(long recordLength) throws IOException {
+
+        long count = getCount();
+        if (count == 0) {
+            var segments = listSegments();
+            return new Position(segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1, 0);
+        }
+
+        var last = readIndexed(count);
+        long offset = last.getEndOffset();
+        if (offset + recordLength > segmentSizeLimit) {
+            return new Position(last.getSegment() + 1, 0);
+        }
+        return new Position(last.getSegment(), offset);
+    }
+
+    // The real payload length commits the record, so it is written only once the payload is on disk.
+    private static void commitRecord(
+        FileChannel segmentChannel, Position position, int headerLength, ChecksumChannel payloadChannel)
+        throws IOException {
+
+        segmentChannel.force(false);
+
+        var trailer = ByteBuffer.allocate(RECORD_TRAILER_SIZE)
+            .putLong(payloadChannel.getCount())
+            .putInt(payloadChannel.getChecksum())
+            .flip();
+        long trailerOffset = position.offset() + headerLength - RECORD_TRAILER_SIZE;
+        while (trailer.hasRemaining()) {
+            segmentChannel.write(trailer, trailerOffset + trailer.position());
+        }
+
+        segmentChannel.force(false);
+    }
+
+    private JournalRecord readIndexed(long sequence) throws IOException {
+
+        if (sequence < 1 || sequence > getCount()) {
+            throw new IOException("Journal record not found: " + sequence);
+        }
+
+        int entryPosition = ensureEntry(sequence);
+        int segment = index.getInt(entryPosition);
+        long offset = index.getLong(entryPosition + 8);
+
+        try (var segmentChannel = openSegment(segment, READ)) {
+            return readRecord(segmentChannel, sequence, segment, offset);
+        }
+    }
+
+    private static JournalRecord readRecord(FileChannel channel, long sequence, int segment, long offset)
+        throws IOException {
+
+        var fixedHeader = readFully(channel, offset, RECORD_FIXED_HEADER_SIZE);
+        if (fixedHeader.getInt() != RECORD_MAGIC) {
+            throw new IOException("Corrupted journal record: " + sequence);
+        }
+
+        var type = RecordType.of(fixedHeader.get());
+        long timestamp = fixedHeader.getLong();
+        int nameLength = Short.toUnsignedInt(fixedHeader.getShort());
+
+        var variableHeader = readFully(channel, offset + RECORD_FIXED_HEADER_SIZE, nameLength + RECORD_TRAILER_SIZE);
+        var nameBytes = new byte[nameLength];
+        variableHeader.get(nameBytes);
+        long payloadLength = variableHeader.getLong();
+        int checksum = variableHeader.getInt();
+
+        if (payloadLength == UNCOMMITTED_LENGTH) {
+            throw new IOException("Uncommitted journal record: " + sequence);
+        }
+
+        long payloadOffset = offset + RECORD_FIXED_HEADER_SIZE + nameLength + RECORD_TRAILER_SIZE;
+        if (payloadLength < 0 || payloadOffset + payloadLength > channel.size()) {
+            throw new IOException("Truncated journal record: " + sequence);
+        }
+
+        return new JournalRecord(
+            sequence, type, timestamp, new String(nameBytes, UTF_8),
+            segment, payloadOffset, payloadLength, checksum);
+    }
+
+    private void initializeIndex() throws IOException {
+
+        long size = indexChannel.size();
+        mapIndex(Math.max(size, INDEX_HEADER_SIZE + (long) INDEX_INITIAL_CAPACITY * INDEX_ENTRY_SIZE));
+
+        if (size < INDEX_HEADER_SIZE) {
+            index.putInt(0, INDEX_MAGIC);
+            setCount(0);
+            rebuildIndex();
+            index.force();
+        } else if (index.getInt(0) != INDEX_MAGIC) {
+            throw new IOException("Invalid journal index: " + new File(directory, INDEX_FILE_NAME));
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+
+        long sequence = 0;
+
+        for (int segment : listSegments()) {
+            try (var segmentChannel = openSegment(segment, READ)) {
+                long offset = 0;
+                while (offset < segmentChannel.size()) {
+                    JournalRecord record;
+                    try {
+                        record = readRecord(segmentChannel, sequence + 1, segment, offset);
+                    } catch (IOException e) {
+                        break;
+                    }
+                    sequence++;
+                    putEntry(sequence, new Position(segment, offset));
+                    offset = record.getEndOffset();
+                }
+            }
+        }
+
+        setCount(sequence);
+    }
+
+    private void mapIndex(long size) throws IOException {
+
+        index = indexChannel.map(READ_WRITE, 0, size);
+    }
+
+    private int ensureEntry(long sequence) throws IOException {
+
+        long entryPosition = INDEX_HEADER_SIZE + (sequence - 1) * INDEX_ENTRY_SIZE;
+        if (entryPosition + INDEX_ENTRY_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Journal index is full");
+        }
+        if (entryPosition + INDEX_ENTRY_SIZE > index.capacity()) {
+            long doubled = Math.min((long) index.capacity() * 2, Integer.MAX_VALUE);
+            mapIndex(Math.max(Math.max(doubled, entryPosition + INDEX_ENTRY_SIZE), indexChannel.size()));
+        }
+        return (int) entryPosition;
+    }
+
+    private void putEntry(long sequence, Position position) throws IOException {
+
+        int entryPosition = ensureEntry(sequence);
+        index.putInt(entryPosition, position.segment());
+        index.putInt(entryPosition + 4, 0);
+        index.putLong(entryPosition + 8, position.offset());
+    }
+
+    private long getCount() {
+
+        return index.getLong(INDEX_COUNT_POSITION);
+    }
+
+    private void setCount(long count) {
+
+        index.putLong(INDEX_COUNT_POSITION, count);
+    }
+
+    private List<Integer> listSegments() {
+
+        var segments = new ArrayList<Integer>();
+        var names = directory.list();
+        if (names != null) {
+            for (var name : names) {
+                var matcher = SEGMENT_NAME_PATTERN.matcher(name);
+                if (matcher.matches()) {
+                    segments.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private FileChannel openSegment(int segment, OpenOption... options) throws IOException {
+
+        return FileChannel.open(new File(directory, String.format(SEGMENT_NAME_FORMAT, segment)).toPath(), options);
+    }
+
+    private static String suggestRecordName(Object data, Strategy strategy) {
+
+        String name = strategy.suggestName(data);
+        String extension = strategy.suggestFileExtension(data);
+        return extension.isEmpty() ? name : name + "." + extension;
+    }
+
+    private static String suggestExportName(JournalRecord record) {
+
+        String name = record.getName();
+        boolean noName = name.isEmpty() || name.startsWith(".");
+        return String.format(noName ? EXPORT_NUMBER_FORMAT : EXPORT_NAME_FORMAT, record.getSequence(), name);
+    }
+
+    private static byte[] toNameBytes(String name) {
+
+        var nameBytes = name.getBytes(UTF_8);
+        int length = nameBytes.length;
+        while (length > MAX_NAME_LENGTH) {
+            name = name.substring(0, name.length() - 1);
+            length = name.getBytes(UTF_8).length;
+        }
+        return length == nameBytes.length ? nameBytes : name.getBytes(UTF_8);
+    }
+
+    private static Object decode(RecordType type, byte[] payload) throws IOException {
+
+        if (type == RecordType.TEXT) {
+            return new String(payload, UTF_8);
+        }
+
+        var image = ImageIO.read(new ByteArrayInputStream(payload));
+        if (image == null) {
+            throw new IOException("Unreadable image in journal");
+        }
+        return image;
+    }
+
+    private static byte[] readPayload(FileChannel channel, JournalRecord record) throws IOException {
+
+        if (record.getPayloadLength() > Integer.MAX_VALUE - 8) {
+            throw new IOException("Journal record too large to decode: " + record.getSequence());
+        }
+        return readFully(channel, record.getPayloadOffset(), (int) record.getPayloadLength()).array();
+    }
+
+    private static void verifyChecksum(FileChannel channel, JournalRecord record) throws IOException {
+
+        if (checksum(channel, record.getPayloadOffset(), record.getPayloadLength()) != record.getChecksum()) {
+            throw new IOException("Checksum mismatch in journal record: " + record.getSequence());
+        }
+    }
+
+    private static int checksum(FileChannel channel, long offset, long length) throws IOException {
+
+        var crc = new CRC32();
+        var buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        long position = offset;
+        long end = offset + length;
+
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Truncated journal payload");
+            }
+            position += read;
+            crc.update(buffer.flip());
+        }
+
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Truncated journal record");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private record Position(int segment, long offset) {
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.joseflavio.arado.journal;
+
+public class JournalRecord {
+
+    private final long sequence;
+    private final RecordType type;
+    private final long timestamp;
+    private final String name;
+    private final int segment;
+    private final long payloadOffset;
+    private final long payloadLength;
+    private final int checksum;
+
+    JournalRecord(
+        long sequence, RecordType type, long timestamp, String name,
+        int segment, long payloadOffset, long payloadLength, int checksum) {
+
+        this.sequence = sequence;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.name = name;
+        this.segment = segment;
+        this.payloadOffset = payloadOffset;
+        this.payloadLength = payloadLength;
+        this.checksum = checksum;
+    }
+
+    public long getSequence() {
+
+        return sequence;
+    }
+
+    public RecordType getType() {
+
+        return type;
+    }
+
+    public long getTimestamp() {
+
+        return timestamp;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+    public int getSegment() {
+
+        return segment;
+    }
+
+    public long getPayloadOffset() {
+
+        return payloadOffset;
+    }
+
+    public long getPayloadLength() {
+
+        return payloadLength;
+    }
+
+    public int getChecksum() {
+
+        return checksum;
+    }
+
+    long getEndOffset() {
+
+        return payloadOffset + payloadLength;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.joseflavio.arado.journal;
+
+import com.joseflavio.arado.strategy.FileStrategy;
+import com.joseflavio.arado.strategy.ImageStrategy;
+import com.joseflavio.arado.strategy.Strategy;
+import com.joseflavio.arado.strategy.TextStrategy;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+public enum RecordType {
+
+    TEXT((byte) 1, String.class, TextStrategy.class),
+    IMAGE((byte) 2, BufferedImage.class, ImageStrategy.class),
+    FILE((byte) 3, File.class, FileStrategy.class);
+
+    private final byte code;
+    private final Class<?> dataClass;
+    private final Class<? extends Strategy> strategyClass;
+
+    RecordType(byte code, Class<?> dataClass, Class<? extends Strategy> strategyClass) {
+
+        this.code = code;
+        this.dataClass = dataClass;
+        this.strategyClass = strategyClass;
+    }
+
+    public byte getCode() {
+
+        return code;
+    }
+
+    public Strategy createStrategy() throws IOException {
+
+        try {
+            return strategyClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public static RecordType of(Object data) throws IOException {
+
+        for (var type : values()) {
+            if (type.dataClass.isInstance(data)) {
+                return type;
+            }
+        }
+        throw new IOException("Unsupported journal record data: " + data.getClass().getName());
+    }
+
+    public static RecordType of(byte code) throws IOException {
+
+        for (var type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IOException("Unknown journal record type: " + code);
+    }
+
+}
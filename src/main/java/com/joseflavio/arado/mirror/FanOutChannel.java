@@ -0,0 +1,324 @@
+package com.joseflavio.arado.mirror;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.joseflavio.arado.strategy.ByteChannels.transferFully;
+import static com.joseflavio.arado.strategy.ByteChannels.writeFully;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Writes every chunk to the primary file on the calling thread and hands a shared copy of it to one
+// writer thread per mirror. A mirror that falls too far behind stops receiving chunks and, once the
+// primary file is complete, copies the remaining bytes from it, so the primary write never waits.
+public class FanOutChannel implements WritableByteChannel {
+
+    private static final long DEFAULT_MAX_QUEUED_BYTES = 64L * 1024 * 1024;
+    private static final Duration DEFAULT_FINISH_TIMEOUT = Duration.ofSeconds(5);
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final File primaryFile;
+    private final File failureLog;
+    private final FileChannel primary;
+    private final List<Mirror> mirrors;
+    private final List<Future<TransferReport>> mirrorResults;
+    private final ExecutorService executor;
+    private final long start;
+    private long primaryBytes;
+    private boolean open;
+
+    public FanOutChannel(File primaryFile, List<File> mirrorFiles) throws IOException {
+
+        this(primaryFile, mirrorFiles, null);
+    }
+
+    // A mirror that fails after being reported as pending appends its report to the failure log, when one is given.
+    public FanOutChannel(File primaryFile, List<File> mirrorFiles, File failureLog) throws IOException {
+
+        this(primaryFile, mirrorFiles, failureLog, DEFAULT_MAX_QUEUED_BYTES);
+    }
+
+    FanOutChannel(File primaryFile, List<File> mirrorFiles, long maxQueuedBytes) throws IOException {
+
+        this(primaryFile, mirrorFiles, null, maxQueuedBytes);
+    }
+
+    FanOutChannel(File primaryFile, List<File> mirrorFiles, File failureLog, long maxQueuedBytes) throws IOException {
+
+        this.primaryFile = primaryFile;
+        this.failureLog = failureLog;
+        this.primary = FileChannel.open(primaryFile.toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+        this.mirrors = new ArrayList<>();
+        this.mirrorResults = new ArrayList<>();
+        // Not daemon threads: a mirror still pending when finish() returns keeps the process alive until it completes.
+        this.executor = Executors.newFixedThreadPool(Math.max(1, mirrorFiles.size()), runnable -> {
+            var thread = new Thread(runnable, "arado-mirror");
+            thread.setDaemon(false);
+            return thread;
+        });
+        this.start = System.nanoTime();
+        this.open = true;
+
+        for (var mirrorFile : mirrorFiles) {
+            var mirror = new Mirror(mirrorFile, maxQueuedBytes);
+            mirrors.add(mirror);
+            mirrorResults.add(executor.submit(mirror));
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+
+        if (! open) {
+            throw new ClosedChannelException();
+        }
+
+        var chunk = ByteBuffer.allocate(source.remaining()).put(source).flip();
+        int length = chunk.remaining();
+
+        writeFully(primary, chunk.duplicate());
+        primaryBytes += length;
+
+        for (var mirror : mirrors) {
+            mirror.offer(chunk.asReadOnlyBuffer());
+        }
+
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+
+        return open;
+    }
+
+    public List<TransferReport> finish() throws IOException {
+
+        return finish(DEFAULT_FINISH_TIMEOUT);
+    }
+
+    // Completes the primary file, waits up to the timeout for the mirrors and returns one report per destination,
+    // primary first. A mirror still being written by then is reported as pending and completes in the background.
+    public List<TransferReport> finish(Duration timeout) throws IOException {
+
+        if (! open) {
+            throw new ClosedChannelException();
+        }
+
+        try {
+            primary.force(false);
+        } finally {
+            open = false;
+            primary.close();
+        }
+
+        var reports = new ArrayList<TransferReport>();
+        reports.add(new TransferReport(primaryFile, primaryBytes, System.nanoTime() - start, null));
+
+        for (var mirror : mirrors) {
+            mirror.finish(primaryBytes);
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (int i = 0; i < mirrors.size(); i++) {
+            reports.add(getReport(mirrors.get(i), mirrorResults.get(i), deadline));
+        }
+
+        executor.shutdown();
+        return reports;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (! open) {
+            return;
+        }
+
+        open = false;
+        for (var mirror : mirrors) {
+            mirror.abort();
+        }
+        executor.shutdownNow();
+        primary.close();
+    }
+
+    private TransferReport getReport(Mirror mirror, Future<TransferReport> result, long deadline) {
+
+        try {
+            try {
+                return result.get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (mirror.detach()) {
+                    return new TransferReport(mirror.file, 0, System.nanoTime() - start, null, true);
+                }
+                // Completed while being detached, so its report is about to be available.
+                return result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new TransferReport(mirror.file, 0, 0, new IOException("Interrupted", e));
+        } catch (ExecutionException e) {
+            return new TransferReport(mirror.file, 0, 0, new IOException(e.getCause()));
+        }
+    }
+
+    private void recordLateFailure(TransferReport report) {
+
+        if (failureLog == null) {
+            return;
+        }
+        try {
+            Files.writeString(failureLog.toPath(), report + System.lineSeparator(), UTF_8, CREATE, WRITE, APPEND);
+        } catch (IOException e) {
+            // Nothing is left to report it to once the save has returned.
+        }
+    }
+
+    private class Mirror implements Callable<TransferReport> {
+
+        private final File file;
+        private final long maxQueuedBytes;
+        private final BlockingQueue<ByteBuffer> queue;
+        private final AtomicLong queuedBytes;
+        private volatile boolean failed;
+        private boolean overflowed;
+        private long totalBytes;
+        private volatile boolean aborted;
+        private boolean detached;
+        private boolean completed;
+
+        public Mirror(File file, long maxQueuedBytes) {
+
+            this.file = file;
+            this.maxQueuedBytes = maxQueuedBytes;
+            this.queue = new LinkedBlockingQueue<>();
+            this.queuedBytes = new AtomicLong();
+        }
+
+        public void offer(ByteBuffer chunk) {
+
+            if (failed || overflowed) {
+                return;
+            }
+            if (queuedBytes.addAndGet(chunk.remaining()) > maxQueuedBytes) {
+                overflowed = true;
+                return;
+            }
+            queue.add(chunk);
+        }
+
+        public void finish(long totalBytes) {
+
+            this.totalBytes = totalBytes;
+            queue.add(END);
+        }
+
+        public void abort() {
+
+            this.aborted = true;
+            queue.add(END);
+        }
+
+        // Called when finish() stops waiting; false when the mirror has completed in the meantime.
+        public synchronized boolean detach() {
+
+            detached = ! completed;
+            return detached;
+        }
+
+        @Override
+        public TransferReport call() {
+
+            var report = transfer();
+            complete(report);
+            return report;
+        }
+
+        private synchronized void complete(TransferReport report) {
+
+            completed = true;
+            if (detached && ! report.isSuccessful()) {
+                recordLateFailure(report);
+            }
+        }
+
+        private TransferReport transfer() {
+
+            long mirrorStart = System.nanoTime();
+            long written = 0;
+
+            try {
+
+                var parent = file.getParentFile();
+                if (parent != null && ! parent.isDirectory() && ! parent.mkdirs()) {
+                    throw new IOException("Could not create directory " + parent);
+                }
+
+                try (var channel = FileChannel.open(file.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+
+                    for (var chunk = queue.take(); chunk != END; chunk = queue.take()) {
+                        int length = chunk.remaining();
+                        writeFully(channel, chunk);
+                        queuedBytes.addAndGet(- length);
+                        written += length;
+                    }
+
+                    // The end marker is queued after every offer, so these fields are visible here.
+                    if (aborted) {
+                        throw new IOException("Transfer aborted");
+                    }
+
+                    if (overflowed) {
+                        try (var source = FileChannel.open(primaryFile.toPath(), READ)) {
+                            transferFully(source, written, totalBytes - written, channel);
+                            written = totalBytes;
+                        }
+                    }
+
+                    channel.force(false);
+                }
+
+                return new TransferReport(file, written, System.nanoTime() - mirrorStart, null);
+
+            } catch (IOException e) {
+                return fail(written, mirrorStart, e);
+            } catch (InterruptedException e) {
+                return fail(written, mirrorStart, new IOException("Transfer interrupted", e));
+            }
+        }
+
+        private TransferReport fail(long written, long mirrorStart, IOException error) {
+
+            failed = true;
+            if (aborted) {
+                file.delete();
+            }
+            return new TransferReport(file, written, System.nanoTime() - mirrorStart, error);
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.joseflavio.arado.mirror;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TransferReport {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final double BYTES_PER_MEGABYTE = 1024d * 1024;
+
+    private final File destination;
+    private final long bytes;
+    private final long nanos;
+    private final IOException error;
+    private final boolean pending;
+
+    TransferReport(File destination, long bytes, long nanos, IOException error) {
+
+        this(destination, bytes, nanos, error, false);
+    }
+
+    TransferReport(File destination, long bytes, long nanos, IOException error, boolean pending) {
+
+        this.destination = destination;
+        this.bytes = bytes;
+        this.nanos = nanos;
+        this.error = error;
+        this.pending = pending;
+    }
+
+    public File getDestination() {
+
+        return destination;
+    }
+
+    public long getBytes() {
+
+        return bytes;
+    }
+
+    public long getNanos() {
+
+        return nanos;
+    }
+
+    public IOException getError() {
+
+        return error;
+    }
+
+    public boolean isSuccessful() {
+
+        return error == null && ! pending;
+    }
+
+    // Still being written in the background when the report was made.
+    public boolean isPending() {
+
+        return pending;
+    }
+
+    public double getBytesPerSecond() {
+
+        return nanos <= 0 ? 0 : bytes * NANOS_PER_SECOND / nanos;
+    }
+
+    @Override
+    public String toString() {
+
+        if (pending) {
+            return destination + ": still being written";
+        }
+        if (error != null) {
+            return destination + ": " + error.getMessage();
+        }
+        return String.format("%s: %d bytes, %.1f MB/s", destination, bytes, getBytesPerSecond() / BYTES_PER_MEGABYTE);
+    }
+
+}
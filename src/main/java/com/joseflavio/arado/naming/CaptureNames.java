@@ -0,0 +1,29 @@
+package com.joseflavio.arado.naming;
+
+import java.util.regex.Pattern;
+
+// How captures and their shard directories are named, shared by saving and searching.
+public final class CaptureNames {
+
+    // Only the names Arado writes: the number, then " - " and the name, or just the extension.
+    public static final Pattern FILE_NUMBER_PATTERN = Pattern.compile("^(\\d{4,18})(?: - .*|\\.[^.]*)$");
+    public static final Pattern SHARD_DIRECTORY_PATTERN = Pattern.compile("^(\\d{1,18})-(\\d{1,18})$");
+    public static final String FILE_NUMBER_FORMAT = "%04d";
+    public static final String SHARD_DIRECTORY_FORMAT = FILE_NUMBER_FORMAT + "-" + FILE_NUMBER_FORMAT;
+
+    private CaptureNames() {
+    }
+
+    // A number only continues the sequence when it is at most one digit wider than the highest capture before it,
+    // so a date or another number used as a file name does not take over the numbering.
+    public static boolean continuesSequence(long number, long highest) {
+
+        return getWidth(number) <= getWidth(highest) + 1;
+    }
+
+    private static int getWidth(long number) {
+
+        return String.format(FILE_NUMBER_FORMAT, number).length();
+    }
+
+}
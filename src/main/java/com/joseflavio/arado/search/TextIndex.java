@@ -0,0 +1,413 @@
+package com.joseflavio.arado.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.joseflavio.arado.naming.CaptureNames.FILE_NUMBER_PATTERN;
+import static com.joseflavio.arado.naming.CaptureNames.SHARD_DIRECTORY_PATTERN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+public class TextIndex {
+
+    static final String INDEX_FILE_NAME = ".arado-text.idx";
+    static final String LOG_FILE_NAME = ".arado-text.log";
+
+    private static final String TEXT_EXTENSION = ".txt";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int INDEX_MAGIC = 0x41544958;
+    private static final int INDEX_VERSION = 1;
+    private static final long LOG_COMPACTION_SIZE = 1024 * 1024;
+
+    private final File directory;
+    private final Map<String, Document> documents;
+    private final Map<String, BitSet> postings;
+    private int nextDocumentId;
+
+    private TextIndex(File directory) {
+
+        this.directory = directory;
+        this.documents = new HashMap<>();
+        this.postings = new HashMap<>();
+    }
+
+    public static TextIndex load(File directory) throws IOException {
+
+        var textIndex = new TextIndex(directory);
+        textIndex.read();
+        textIndex.replayLog();
+        return textIndex;
+    }
+
+    public static TextIndex open(File directory) throws IOException {
+
+        var textIndex = load(directory);
+        if (textIndex.refresh() || textIndex.getLogFile().exists()) {
+            textIndex.save();
+        }
+        return textIndex;
+    }
+
+    // Searches the directory and its shard subdirectories, most recent capture first.
+    public static List<File> searchTree(File directory, String query) throws IOException {
+
+        var found = new ArrayList<>(open(directory).search(query));
+
+        var shards = directory.listFiles(file -> file.isDirectory()
+            && SHARD_DIRECTORY_PATTERN.matcher(file.getName()).matches());
+        if (shards != null && shards.length > 0) {
+            for (var shard : shards) {
+                found.addAll(open(shard).search(query));
+            }
+            found.sort(Comparator.comparingLong(TextIndex::getCaptureNumber)
+                .thenComparingLong(File::lastModified)
+                .reversed());
+        }
+
+        return found;
+    }
+
+    public static boolean isIndexable(File file) {
+
+        var name = file.getName();
+        return name.endsWith(TEXT_EXTENSION) && FILE_NUMBER_PATTERN.matcher(name).matches();
+    }
+
+    // Appends the capture's tokens to the log of its directory without reading the index; a replaced file
+    // is sorted out when the log is replayed. The log is folded into the index once it grows large.
+    public static void add(File file, String text) throws IOException {
+
+        var directory = file.getParentFile();
+        if (! isIndexable(file) || directory == null) {
+            return;
+        }
+
+        var logFile = new File(directory, LOG_FILE_NAME);
+        try (var output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)))) {
+            var tokens = tokenize(text);
+            output.writeUTF(file.getName());
+            output.writeLong(file.lastModified());
+            output.writeLong(file.length());
+            writeVarInt(output, tokens.size());
+            for (var token : tokens) {
+                output.writeUTF(token);
+            }
+        }
+
+        if (logFile.length() > LOG_COMPACTION_SIZE) {
+            open(directory);
+        }
+    }
+
+    public List<File> search(String query) {
+
+        BitSet matches = null;
+
+        for (var token : tokenize(query)) {
+            var posting = postings.get(token);
+            if (posting == null) {
+                return List.of();
+            }
+            if (matches == null) {
+                matches = (BitSet) posting.clone();
+            } else {
+                matches.and(posting);
+            }
+        }
+
+        if (matches == null || matches.isEmpty()) {
+            return List.of();
+        }
+
+        var found = new ArrayList<Document>();
+        for (var document : documents.values()) {
+            if (matches.get(document.id)) {
+                found.add(document);
+            }
+        }
+
+        found.sort(Comparator.comparingLong((Document document) -> document.number)
+            .thenComparingLong(document -> document.lastModified)
+            .reversed());
+
+        var files = new ArrayList<File>(found.size());
+        for (var document : found) {
+            files.add(new File(directory, document.name));
+        }
+        return files;
+    }
+
+    public boolean refresh() throws IOException {
+
+        var present = new HashMap<String, File>();
+        var files = directory.listFiles();
+        if (files != null) {
+            for (var file : files) {
+                if (isIndexable(file) && file.isFile()) {
+                    present.put(file.getName(), file);
+                }
+            }
+        }
+
+        var stale = new ArrayList<Document>();
+        for (var document : documents.values()) {
+            var file = present.get(document.name);
+            if (file == null || file.lastModified() != document.lastModified || file.length() != document.size) {
+                stale.add(document);
+            }
+        }
+
+        removeDocuments(idsOf(stale));
+
+        var changed = ! stale.isEmpty();
+        for (var file : present.values()) {
+            if (! documents.containsKey(file.getName())) {
+                addDocument(file.getName(), file.lastModified(), file.length(), tokenize(readText(file)));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void addDocument(String name, long lastModified, long size, Set<String> tokens) {
+
+        var document = new Document(nextDocumentId++, name, parseCaptureNumber(name), lastModified, size);
+        documents.put(document.name, document);
+
+        for (var token : tokens) {
+            postings.computeIfAbsent(token, key -> new BitSet()).set(document.id);
+        }
+    }
+
+    private void removeDocuments(BitSet ids) {
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        documents.values().removeIf(document -> ids.get(document.id));
+
+        var iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            var posting = iterator.next();
+            posting.andNot(ids);
+            if (posting.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long getCaptureNumber(File file) {
+
+        return parseCaptureNumber(file.getName());
+    }
+
+    private static long parseCaptureNumber(String name) {
+
+        var matcher = FILE_NUMBER_PATTERN.matcher(name);
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static BitSet idsOf(List<Document> documents) {
+
+        var ids = new BitSet();
+        for (var document : documents) {
+            ids.set(document.id);
+        }
+        return ids;
+    }
+
+    private static Set<String> tokenize(String text) {
+
+        var tokens = new HashSet<String>();
+        for (var token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (! token.isEmpty()) {
+                tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String readText(File file) throws IOException {
+
+        return new String(Files.readAllBytes(file.toPath()), UTF_8);
+    }
+
+    private File getIndexFile() {
+
+        return new File(directory, INDEX_FILE_NAME);
+    }
+
+    private File getLogFile() {
+
+        return new File(directory, LOG_FILE_NAME);
+    }
+
+    private void read() throws IOException {
+
+        var indexFile = getIndexFile();
+        if (! indexFile.exists()) {
+            return;
+        }
+
+        try (var input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+
+            if (input.readInt() != INDEX_MAGIC || input.readInt() != INDEX_VERSION) {
+                return;
+            }
+
+            nextDocumentId = input.readInt();
+
+            int documentCount = input.readInt();
+            for (int i = 0; i < documentCount; i++) {
+                var document = new Document(
+                    readVarInt(input), input.readUTF(), input.readLong(), input.readLong(), input.readLong());
+                documents.put(document.name, document);
+            }
+
+            int termCount = input.readInt();
+            for (int i = 0; i < termCount; i++) {
+                var term = input.readUTF();
+                var posting = new BitSet();
+                int id = - 1;
+                for (int j = readVarInt(input); j > 0; j--) {
+                    id += readVarInt(input) + 1;
+                    posting.set(id);
+                }
+                postings.put(term, posting);
+            }
+
+        } catch (IOException | IndexOutOfBoundsException e) {
+            // A damaged index is discarded and rebuilt from the capture files.
+            documents.clear();
+            postings.clear();
+            nextDocumentId = 0;
+        }
+    }
+
+    private void save() throws IOException {
+
+        var indexFile = getIndexFile();
+        var temporaryFile = new File(directory, INDEX_FILE_NAME + ".tmp");
+
+        try (var output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+
+            output.writeInt(INDEX_MAGIC);
+            output.writeInt(INDEX_VERSION);
+            output.writeInt(nextDocumentId);
+
+            output.writeInt(documents.size());
+            for (var document : documents.values()) {
+                writeVarInt(output, document.id);
+                output.writeUTF(document.name);
+                output.writeLong(document.number);
+                output.writeLong(document.lastModified);
+                output.writeLong(document.size);
+            }
+
+            output.writeInt(postings.size());
+            for (var entry : postings.entrySet()) {
+                var posting = entry.getValue();
+                output.writeUTF(entry.getKey());
+                writeVarInt(output, posting.cardinality());
+                int previous = - 1;
+                for (int id = posting.nextSetBit(0); id >= 0; id = posting.nextSetBit(id + 1)) {
+                    writeVarInt(output, id - previous - 1);
+                    previous = id;
+                }
+            }
+        }
+
+        Files.move(temporaryFile.toPath(), indexFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+        Files.deleteIfExists(getLogFile().toPath());
+    }
+
+    private void replayLog() throws IOException {
+
+        var logFile = getLogFile();
+        if (! logFile.exists()) {
+            return;
+        }
+
+        try (var input = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (true) {
+                var name = input.readUTF();
+                long lastModified = input.readLong();
+                long size = input.readLong();
+                var tokens = new HashSet<String>();
+                for (int i = readVarInt(input); i > 0; i--) {
+                    tokens.add(input.readUTF());
+                }
+                var previous = documents.get(name);
+                if (previous != null) {
+                    removeDocuments(idsOf(List.of(previous)));
+                }
+                addDocument(name, lastModified, size, tokens);
+            }
+        } catch (EOFException e) {
+            // The end of the log, or an entry cut short by a crash, which refresh() then picks up.
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream input) throws IOException {
+
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed text index");
+    }
+
+    private static class Document {
+
+        private final int id;
+        private final String name;
+        private final long number;
+        private final long lastModified;
+        private final long size;
+
+        public Document(int id, String name, long number, long lastModified, long size) {
+
+            this.id = id;
+            this.name = name;
+            this.number = number;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.joseflavio.arado.strategy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+public final class ByteChannels {
+
+    private ByteChannels() {
+    }
+
+    public static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void transferFully(FileChannel source, long offset, long length, WritableByteChannel target)
+        throws IOException {
+
+        long transferred = 0;
+        while (transferred < length) {
+            long count = source.transferTo(offset + transferred, length - transferred, target);
+            if (count <= 0 && offset + transferred >= source.size()) {
+                throw new EOFException("Unexpected end of " + source);
+            }
+            transferred += count;
+        }
+    }
+
+}
@@ -2,9 +2,12 @@ package com.joseflavio.arado.strategy;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
 
 public class FileStrategy implements Strategy {
 
@@ -26,6 +29,20 @@ public class FileStrategy implements Strategy {
         Files.copy(((File) data).toPath(), destination.toPath(), REPLACE_EXISTING);
     }
 
+    @Override
+    public void saveToChannel(Object data, WritableByteChannel channel) throws IOException {
+
+        try (var source = FileChannel.open(((File) data).toPath(), READ)) {
+            ByteChannels.transferFully(source, 0, source.size(), channel);
+        }
+    }
+
+    @Override
+    public long estimateSize(Object data) {
+
+        return ((File) data).length();
+    }
+
     private static String getNameWithoutExtension(String fileName) {
 
         int lastDot = fileName.lastIndexOf('.');
@@ -1,13 +1,25 @@
 package com.joseflavio.arado.strategy;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 public class ImageStrategy implements Strategy {
 
     private static final String PNG_EXTENSION = "png";
+    // Stored deflate blocks, IDAT chunks (length, type and CRC) and the remaining chunks
+    private static final int PNG_BLOCK_SIZE = 16 * 1024;
+    private static final int PNG_BLOCK_OVERHEAD = 5;
+    private static final int PNG_CHUNK_SIZE = 32 * 1024;
+    private static final int PNG_CHUNK_OVERHEAD = 12;
+    private static final int PNG_FIXED_OVERHEAD = 1024;
 
     @Override
     public String suggestName(Object data) {
@@ -27,4 +39,52 @@ public class ImageStrategy implements Strategy {
         ImageIO.write((BufferedImage) data, PNG_EXTENSION, destination);
     }
 
+    @Override
+    public void saveToChannel(Object data, WritableByteChannel channel) throws IOException {
+
+        var writers = ImageIO.getImageWritersByFormatName(PNG_EXTENSION);
+        if (! writers.hasNext()) {
+            throw new IOException("No PNG image writer available");
+        }
+
+        var writer = writers.next();
+        var outputStream = new BufferedOutputStream(Channels.newOutputStream(channel));
+
+        // ImageIO.write(image, format, OutputStream) would cache the whole encoding in a temporary file.
+        try (var imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            writer.write((BufferedImage) data);
+        } finally {
+            writer.dispose();
+        }
+
+        outputStream.flush();
+    }
+
+    // The size of the rows the PNG writer emits, each with its filter byte, as if stored uncompressed.
+    // Compressible images come out smaller; the journal relocates a record that turns out larger.
+    @Override
+    public long estimateSize(Object data) {
+
+        var image = (BufferedImage) data;
+        var colorModel = image.getColorModel();
+        int bitsPerPixel = colorModel instanceof IndexColorModel
+            ? colorModel.getPixelSize()
+            : colorModel.getNumComponents() * (maxComponentSize(colorModel) > 8 ? 16 : 8);
+
+        long rowSize = ((long) image.getWidth() * bitsPerPixel + 7) / 8 + 1;
+        long rawSize = rowSize * image.getHeight();
+        long deflateSize = rawSize + (rawSize / PNG_BLOCK_SIZE + 1) * PNG_BLOCK_OVERHEAD;
+        return deflateSize + (deflateSize / PNG_CHUNK_SIZE + 1) * PNG_CHUNK_OVERHEAD + PNG_FIXED_OVERHEAD;
+    }
+
+    private static int maxComponentSize(ColorModel colorModel) {
+
+        int size = 0;
+        for (int componentSize : colorModel.getComponentSize()) {
+            size = Math.max(size, componentSize);
+        }
+        return size;
+    }
+
 }
@@ -2,6 +2,11 @@ package com.joseflavio.arado.strategy;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+
+import static java.nio.file.StandardOpenOption.READ;
 
 public interface Strategy {
 
@@ -11,4 +16,25 @@ public interface Strategy {
 
     void saveToFile(Object data, File destination) throws IOException;
 
+    // Writes the same bytes as saveToFile into the channel, which is left open. This adapter goes
+    // through a temporary file, so strategies should override it to write into the channel directly.
+    default void saveToChannel(Object data, WritableByteChannel channel) throws IOException {
+
+        var temporaryFile = Files.createTempFile("arado-", ".tmp");
+        try {
+            saveToFile(data, temporaryFile.toFile());
+            try (var source = FileChannel.open(temporaryFile, READ)) {
+                ByteChannels.transferFully(source, 0, source.size(), channel);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    // Number of bytes saveToChannel is expected to write, or -1 if unknown.
+    default long estimateSize(Object data) {
+
+        return - 1;
+    }
+
 }
@@ -2,6 +2,7 @@ package com.joseflavio.arado.strategy;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -26,6 +27,37 @@ public class TextStrategy implements Strategy {
         Files.writeString(destination.toPath(), (String) data, UTF_8);
     }
 
+    @Override
+    public void saveToChannel(Object data, WritableByteChannel channel) throws IOException {
+
+        ByteChannels.writeFully(channel, UTF_8.encode((String) data));
+    }
+
+    @Override
+    public long estimateSize(Object data) {
+
+        // Counts the UTF-8 bytes without encoding the text; an unpaired surrogate is encoded as '?'.
+        var text = (String) data;
+        long size = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                size += 1;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
     private static String cleanAndTruncate(String text) {
 
         var result = text.replace("\r", "")
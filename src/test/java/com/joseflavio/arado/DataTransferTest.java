@@ -1,5 +1,6 @@
 package com.joseflavio.arado;
 
+import com.joseflavio.arado.mirror.TransferReport;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.stubbing.Answer;
@@ -8,17 +9,22 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import static java.awt.image.BufferedImage.TYPE_INT_RGB;
 import static java.io.File.createTempFile;
 import static java.nio.file.Files.readString;
 import static java.nio.file.Files.writeString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class DataTransferTest {
@@ -98,6 +104,224 @@ class DataTransferTest {
         assertEquals("0002 - " + SUGGESTED_TEXT_FILE_NAME, file2.getName());
     }
 
+    @Test
+    void givenSimilarImageAlreadySavedWhenSaveClipboardContentAsFileThenSkipDuplicate() throws IOException {
+
+        mockDependencies(IMAGE_CONTENT);
+        when(configuration.getDuplicateImageDistance()).thenReturn(4);
+        when(configuration.isSkipDuplicateImages()).thenReturn(true);
+
+        var file = dataTransfer.saveClipboardContentAsFile();
+        var duplicate = dataTransfer.saveClipboardContentAsFile();
+
+        assertTrue(file.exists());
+        assertNull(duplicate);
+        assertEquals(file, dataTransfer.getSkippedDuplicate());
+    }
+
+    @Test
+    void givenImageMovedIntoShardWhenSaveSimilarImageThenSkipDuplicateAtNewPath() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        var gradient = new BufferedImage(90, 10, TYPE_INT_RGB);
+        for (int x = 0; x < gradient.getWidth(); x++) {
+            for (int y = 0; y < gradient.getHeight(); y++) {
+                gradient.setRGB(x, y, (255 - x * 2) * 0x010101);
+            }
+        }
+
+        mockDependencies(IMAGE_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+        when(configuration.getDuplicateImageDistance()).thenReturn(4);
+        when(configuration.isSkipDuplicateImages()).thenReturn(true);
+        dataTransfer.saveClipboardContentAsFile();
+
+        when(configuration.getShardSize()).thenReturn(2);
+        when(clipboardManager.getData()).thenReturn(gradient);
+        var file = dataTransfer.saveClipboardContentAsFile();
+
+        when(clipboardManager.getData()).thenReturn(IMAGE_CONTENT);
+        var duplicate = dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals(new File(directory, "0001-0002/0002.png"), file);
+        assertNull(duplicate);
+        assertEquals(new File(directory, "0001-0002/0001.png"), dataTransfer.getSkippedDuplicate());
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenCaptureNumberBeyond9999WhenSaveClipboardContentAsFileThenKeepNumbering() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        writeString(new File(directory, "9999 - old.txt").toPath(), TEXT_CONTENT);
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+
+        var file1 = dataTransfer.saveClipboardContentAsFile();
+        var file2 = dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals("10000 - " + SUGGESTED_TEXT_FILE_NAME, file1.getName());
+        assertEquals("10001 - " + SUGGESTED_TEXT_FILE_NAME, file2.getName());
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenShardingWhenSaveClipboardContentAsFileThenMigrateAndFillBoundedShards() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        writeString(new File(directory, "0001 - old.txt").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "0002 - old.txt").toPath(), TEXT_CONTENT);
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+        when(configuration.getShardSize()).thenReturn(2);
+
+        var file1 = dataTransfer.saveClipboardContentAsFile();
+        var file2 = dataTransfer.saveClipboardContentAsFile();
+        var file3 = dataTransfer.saveClipboardContentAsFile();
+
+        assertTrue(new File(directory, "0001-0002/0001 - old.txt").isFile());
+        assertTrue(new File(directory, "0001-0002/0002 - old.txt").isFile());
+        assertEquals(new File(directory, "0003-0004/0003 - " + SUGGESTED_TEXT_FILE_NAME), file1);
+        assertEquals(new File(directory, "0003-0004/0004 - " + SUGGESTED_TEXT_FILE_NAME), file2);
+        assertEquals(new File(directory, "0005-0006/0005 - " + SUGGESTED_TEXT_FILE_NAME), file3);
+        verify(configuration, never()).setLastDirectory(any());
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenDatePrefixedFilesWhenSaveClipboardContentAsFileThenIgnoreTheirNumbers() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        writeString(new File(directory, "20231019_141500.jpg").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "2023-report.pdf").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "20231019.md").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "0002 - old.txt").toPath(), TEXT_CONTENT);
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+
+        var file = dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals("0003 - " + SUGGESTED_TEXT_FILE_NAME, file.getName());
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenShardingAndDateNamedFileWhenSaveClipboardContentAsFileThenLeaveItInRoot() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        writeString(new File(directory, "20231019.md").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "0001 - old.txt").toPath(), TEXT_CONTENT);
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+        when(configuration.getShardSize()).thenReturn(1000);
+
+        var file = dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals(new File(new File(directory, "0001-1000"), "0002 - " + SUGGESTED_TEXT_FILE_NAME), file);
+        assertTrue(new File(directory, "20231019.md").isFile());
+        assertTrue(new File(new File(directory, "0001-1000"), "0001 - old.txt").isFile());
+        assertEquals(1, directory.listFiles(File::isDirectory).length);
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenShardingAndCancelledDialogWhenSaveClipboardContentAsFileThenLeaveDirectoryUntouched()
+        throws IOException {
+
+        var directory = createTemporaryDirectory();
+        writeString(new File(directory, "20231019_141500.jpg").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "0001 - old.txt").toPath(), TEXT_CONTENT);
+
+        mockDependencies(TEXT_CONTENT, call -> null);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+        when(configuration.getShardSize()).thenReturn(1000);
+
+        assertNull(dataTransfer.saveClipboardContentAsFile());
+        assertTrue(new File(directory, "20231019_141500.jpg").isFile());
+        assertTrue(new File(directory, "0001 - old.txt").isFile());
+        assertEquals(0, directory.listFiles(File::isDirectory).length);
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenShardingAndNameTakenInShardWhenSaveClipboardContentAsFileThenKeepFileAndWarn() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        var shard = new File(directory, "0001-0002");
+        shard.mkdir();
+        writeString(new File(shard, "0001 - old.txt").toPath(), TEXT_CONTENT);
+        writeString(new File(directory, "0001 - old.txt").toPath(), TEXT_CONTENT);
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+        when(configuration.getShardSize()).thenReturn(2);
+
+        var file1 = dataTransfer.saveClipboardContentAsFile();
+        var file2 = dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals(new File(shard, "0002 - " + SUGGESTED_TEXT_FILE_NAME), file1);
+        assertEquals(new File(directory, "0003-0004/0003 - " + SUGGESTED_TEXT_FILE_NAME), file2);
+        assertTrue(new File(directory, "0001 - old.txt").isFile());
+        assertEquals(1, dataTransfer.getWarnings().size());
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenMirrorDirectoryWhenSaveClipboardContentAsFileThenSaveCopyToMirror() throws IOException {
+
+        var mirrorDirectory = createTemporaryDirectory();
+        mockDependencies(TEXT_CONTENT, TEXT_FILE_NAME);
+        when(configuration.getMirrorDirectories()).thenReturn(List.of(mirrorDirectory));
+
+        var file = dataTransfer.saveClipboardContentAsFile();
+        var reports = dataTransfer.getTransferReports();
+
+        assertEquals(TEXT_CONTENT, readString(new File(mirrorDirectory, TEXT_FILE_NAME).toPath()));
+        assertEquals(TEXT_CONTENT, readString(file.toPath()));
+        assertEquals(2, reports.size());
+        assertTrue(reports.stream().allMatch(TransferReport::isSuccessful));
+        deleteDirectory(mirrorDirectory);
+    }
+
+    @Test
+    void givenUnwritableTextIndexWhenSaveClipboardContentAsFileThenSaveAndWarn() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        new File(directory, ".arado-text.log").mkdir();
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+
+        var file = dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals(TEXT_CONTENT, readString(file.toPath()));
+        assertEquals(1, dataTransfer.getWarnings().size());
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenLateMirrorFailureWhenSaveClipboardContentAsFileThenWarnAndForgetIt() throws IOException {
+
+        var directory = createTemporaryDirectory();
+        var failureFile = new File(directory, ".arado-mirror-failures");
+        writeString(failureFile.toPath(), "/mnt/backup/0001.txt: No space left on device\n");
+
+        mockDependencies(TEXT_CONTENT);
+        when(configuration.getLastDirectory()).thenReturn(directory);
+        when(configuration.getMirrorFailureFile()).thenReturn(failureFile);
+
+        dataTransfer.saveClipboardContentAsFile();
+
+        assertEquals(1, dataTransfer.getWarnings().size());
+        assertTrue(dataTransfer.getWarnings().get(0).contains("/mnt/backup/0001.txt: No space left on device"));
+        assertFalse(failureFile.exists());
+        deleteDirectory(directory);
+    }
+
     @Test
     void givenIoExceptionWhenSaveClipboardContentAsFileThenThrowIoException() throws IOException {
 
@@ -158,10 +382,19 @@ class DataTransferTest {
 
     private static void deleteTemporaryDirectory() {
 
-        for (var file : TEMPORARY_DIRECTORY.listFiles()) {
-            file.delete();
+        deleteDirectory(TEMPORARY_DIRECTORY);
+    }
+
+    private static void deleteDirectory(File directory) {
+
+        for (var file : directory.listFiles()) {
+            if (file.isDirectory()) {
+                deleteDirectory(file);
+            } else {
+                file.delete();
+            }
         }
-        TEMPORARY_DIRECTORY.delete();
+        directory.delete();
     }
 
 }
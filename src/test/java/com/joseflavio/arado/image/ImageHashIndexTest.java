@@ -0,0 +1,175 @@
+package com.joseflavio.arado.image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageHashIndexTest {
+
+    private static final int MAX_DISTANCE = 4;
+
+    private final File directory;
+
+    ImageHashIndexTest() {
+
+        var systemTemporaryDirectory = System.getProperty("java.io.tmpdir");
+        this.directory = new File(systemTemporaryDirectory, "TestImageHash-" + Math.random());
+        this.directory.mkdir();
+    }
+
+    @AfterEach
+    void afterEach() {
+
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenImagesDifferingBySmallDetailWhenDifferenceHashThenReturnCloseHashes() {
+
+        var window = drawWindow(0);
+        var windowWithCursor = drawWindow(0);
+        windowWithCursor.getGraphics().fillRect(300, 200, 2, 14);
+
+        int distance = ImageHash.distance(
+            ImageHash.differenceHash(window), ImageHash.differenceHash(windowWithCursor));
+        int unrelatedDistance = ImageHash.distance(
+            ImageHash.differenceHash(window), ImageHash.differenceHash(drawWindow(1)));
+
+        assertTrue(distance <= MAX_DISTANCE);
+        assertTrue(unrelatedDistance > MAX_DISTANCE);
+    }
+
+    @Test
+    void givenIndexedHashesWhenFindSimilarThenReturnClosestExistingFile() throws IOException {
+
+        try (var index = ImageHashIndex.load(directory)) {
+            index.add(0b1111L, createFile("0001.png"));
+            index.add(0b1100L, createFile("0002.png"));
+            index.add(0xFFFF_0000_0000_0000L, createFile("0003.png"));
+            index.add(0b1111L, createFile("0004.png"));
+
+            assertEquals("0001.png", index.findSimilar(0b0111L, MAX_DISTANCE).getName());
+            assertEquals("0002.png", index.findSimilar(0b1000L, MAX_DISTANCE).getName());
+            assertNull(index.findSimilar(0x00FF_0000_0000_0000L, MAX_DISTANCE));
+        }
+    }
+
+    @Test
+    void givenManyIndexedHashesWhenReloadThenFindEveryHashInPersistedTree() throws IOException {
+
+        var random = new Random(42);
+        var hashes = new long[500];
+        try (var index = ImageHashIndex.load(directory)) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = random.nextLong();
+                index.add(hashes[i], createFile(String.format("%04d.png", i + 1)));
+            }
+        }
+
+        try (var reloaded = ImageHashIndex.load(directory)) {
+            for (int i = 0; i < hashes.length; i++) {
+                var expected = String.format("%04d.png", i + 1);
+                assertEquals(expected, reloaded.findSimilar(hashes[i] ^ 0b101, MAX_DISTANCE).getName());
+            }
+        }
+    }
+
+    @Test
+    void givenReloadedIndexWhenFindSimilarThenIgnoreDeletedFiles() throws IOException {
+
+        var deleted = createFile("0001.png");
+        try (var index = ImageHashIndex.load(directory)) {
+            index.add(0b1111L, deleted);
+            index.add(0b1110_0000L, createFile("0002.png"));
+        }
+        assertTrue(deleted.delete());
+
+        try (var reloaded = ImageHashIndex.load(directory)) {
+            assertNull(reloaded.findSimilar(0b1111L, 1));
+            assertEquals("0002.png", reloaded.findSimilar(0b1111L, 8).getName());
+        }
+    }
+
+    @Test
+    void givenFilesInSubdirectoriesWhenFindSimilarThenSearchWholeTree() throws IOException {
+
+        new File(directory, "0001-0002").mkdir();
+        new File(directory, "0003-0004").mkdir();
+        try (var index = ImageHashIndex.load(directory)) {
+            index.add(0b1111L, createFile("0001-0002/0002.png"));
+            index.add(0xFFFF_0000_0000_0000L, createFile("0003-0004/0003.png"));
+        }
+
+        try (var index = ImageHashIndex.load(directory)) {
+            assertEquals(new File(directory, "0001-0002/0002.png"), index.findSimilar(0b0111L, MAX_DISTANCE));
+        }
+    }
+
+    @Test
+    void givenMovedFilesWhenRenameThenFindThemAtNewPaths() throws IOException {
+
+        var file = createFile("0001.png");
+        try (var index = ImageHashIndex.load(directory)) {
+            index.add(0b1111L, file);
+        }
+
+        new File(directory, "0001-0002").mkdir();
+        var moved = new File(directory, "0001-0002/0001.png");
+        assertTrue(file.renameTo(moved));
+
+        try (var index = ImageHashIndex.load(directory)) {
+            assertNull(index.findSimilar(0b1111L, MAX_DISTANCE));
+            index.rename(Map.of(file, moved));
+            assertEquals(moved, index.findSimilar(0b1111L, MAX_DISTANCE));
+        }
+    }
+
+    private File createFile(String name) throws IOException {
+
+        var file = new File(directory, name);
+        file.createNewFile();
+        return file;
+    }
+
+    private static void deleteDirectory(File directory) {
+
+        for (var file : directory.listFiles()) {
+            if (file.isDirectory()) {
+                deleteDirectory(file);
+            } else {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static BufferedImage drawWindow(int layout) {
+
+        var image = new BufferedImage(640, 480, TYPE_INT_RGB);
+        var graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 640, 480);
+        graphics.setColor(Color.DARK_GRAY);
+        if (layout == 0) {
+            graphics.fillRect(0, 0, 640, 40);
+            graphics.fillRect(0, 40, 120, 440);
+        } else {
+            graphics.fillRect(520, 0, 120, 480);
+            graphics.fillRect(0, 400, 520, 80);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+}
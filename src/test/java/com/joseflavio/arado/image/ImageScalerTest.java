@@ -0,0 +1,81 @@
+package com.joseflavio.arado.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageScalerTest {
+
+    @Test
+    void givenImageWithinLimitsWhenScaleThenReturnSameImage() {
+
+        var image = new BufferedImage(100, 50, TYPE_INT_RGB);
+        assertSame(image, new ImageScaler(100, 100).scale(image));
+    }
+
+    @Test
+    void givenNoLimitsWhenIsEnabledThenReturnFalse() {
+
+        assertFalse(new ImageScaler(0, 0).isEnabled());
+        assertTrue(new ImageScaler(0, 10).isEnabled());
+    }
+
+    @Test
+    void givenWideImageWhenScaleThenKeepAspectRatioAndColor() {
+
+        var image = fill(new BufferedImage(800, 400, TYPE_INT_RGB), 0xFF3366CC);
+
+        var scaled = new ImageScaler(200, 0).scale(image);
+
+        assertEquals(200, scaled.getWidth());
+        assertEquals(100, scaled.getHeight());
+        assertEquals(0xFF3366CC, scaled.getRGB(0, 0));
+        assertEquals(0xFF3366CC, scaled.getRGB(199, 99));
+        assertEquals(0xFF3366CC, scaled.getRGB(100, 50));
+    }
+
+    @Test
+    void givenTallImageWhenScaleThenFitMaximumHeight() {
+
+        var scaled = new ImageScaler(1000, 90).scale(new BufferedImage(300, 900, TYPE_INT_RGB));
+
+        assertEquals(30, scaled.getWidth());
+        assertEquals(90, scaled.getHeight());
+    }
+
+    @Test
+    void givenTransparentImageWhenScaleThenPreserveAlphaWithoutColorBleeding() {
+
+        var image = fill(new BufferedImage(400, 400, TYPE_INT_ARGB), 0x00000000);
+        for (int y = 0; y < 400; y++) {
+            for (int x = 0; x < 200; x++) {
+                image.setRGB(x, y, 0xFFFF0000);
+            }
+        }
+
+        var scaled = new ImageScaler(100, 100).scale(image);
+
+        assertTrue(scaled.getColorModel().hasAlpha());
+        assertEquals(0xFFFF0000, scaled.getRGB(10, 50));
+        assertEquals(0, scaled.getRGB(90, 50) >>> 24);
+        assertEquals(0xFF0000, scaled.getRGB(52, 50) & 0xFFFFFF);
+    }
+
+    private static BufferedImage fill(BufferedImage image, int argb) {
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.joseflavio.arado.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapImageTest {
+
+    @Test
+    void givenRgbImageWhenSpillThenKeepPixelsOffHeap() throws IOException {
+
+        var image = createImage(TYPE_INT_RGB);
+
+        var spilled = OffHeapImage.spill(image);
+
+        assertTrue(OffHeapImage.isOffHeap(spilled));
+        assertFalse(OffHeapImage.isOffHeap(image));
+        assertFalse(spilled.getColorModel().hasAlpha());
+        assertSamePixels(image, spilled);
+    }
+
+    @Test
+    void givenTransparentImageWhenSpillThenKeepAlpha() throws IOException {
+
+        var image = createImage(TYPE_INT_ARGB);
+
+        var spilled = OffHeapImage.spill(image);
+
+        assertTrue(spilled.getColorModel().hasAlpha());
+        assertSamePixels(image, spilled);
+    }
+
+    @Test
+    void givenSpilledImageWhenEncodePngThenDecodeSamePixels() throws IOException {
+
+        var image = createImage(TYPE_INT_ARGB);
+        var output = new ByteArrayOutputStream();
+
+        assertTrue(ImageIO.write(OffHeapImage.spill(image), "png", output));
+
+        assertSamePixels(image, ImageIO.read(new ByteArrayInputStream(output.toByteArray())));
+    }
+
+    private static BufferedImage createImage(int type) {
+
+        var image = new BufferedImage(120, 80, type);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int alpha = type == TYPE_INT_RGB ? 0xFF : (x * 2) & 0xFF;
+                image.setRGB(x, y, alpha << 24 | x << 16 | y << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.joseflavio.arado.journal;
+
+import com.joseflavio.arado.strategy.FileStrategy;
+import com.joseflavio.arado.strategy.ImageStrategy;
+import com.joseflavio.arado.strategy.TextStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import static java.io.File.createTempFile;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+    private static final String TEXT_CONTENT = "test/text\ncontent";
+
+    private final File journalDirectory;
+
+    JournalTest() {
+
+        this.journalDirectory = createTemporaryDirectory("TestJournal-");
+    }
+
+    @AfterEach
+    void afterEach() {
+
+        deleteDirectory(journalDirectory);
+    }
+
+    @Test
+    void givenTextContentWhenAppendThenExportSameText() throws IOException {
+
+        var exportDirectory = createTemporaryDirectory("TestExport-");
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+
+            long sequence = journal.append(TEXT_CONTENT, new TextStrategy());
+            var file = journal.export(sequence, exportDirectory);
+
+            assertEquals(1, sequence);
+            assertEquals(TEXT_CONTENT, readString(file.toPath()));
+            assertEquals("0001 - test_text content.txt", file.getName());
+
+        } finally {
+            deleteDirectory(exportDirectory);
+        }
+    }
+
+    @Test
+    void givenImageAndFileContentWhenAppendThenExportEquivalentFiles() throws IOException {
+
+        var image = new BufferedImage(10, 10, TYPE_INT_RGB);
+        image.setRGB(3, 4, 0x123456);
+
+        var sourceFile = createTempFile("temp", ".bin");
+        sourceFile.deleteOnExit();
+        writeString(sourceFile.toPath(), TEXT_CONTENT);
+
+        var imageFile = createTempFile("temp", ".png");
+        var copyFile = createTempFile("temp", ".bin");
+        imageFile.deleteOnExit();
+        copyFile.deleteOnExit();
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+
+            long imageSequence = journal.append(image, new ImageStrategy());
+            long fileSequence = journal.append(sourceFile, new FileStrategy());
+
+            journal.export(imageSequence, imageFile);
+            journal.export(fileSequence, copyFile);
+
+            assertEquals(RecordType.IMAGE, journal.read(imageSequence).getType());
+            assertEquals(RecordType.FILE, journal.read(fileSequence).getType());
+            assertEquals(0x123456, ImageIO.read(imageFile).getRGB(3, 4) & 0xFFFFFF);
+            assertEquals(TEXT_CONTENT, readString(copyFile.toPath()));
+        }
+    }
+
+    @Test
+    void givenSmallSegmentSizeWhenAppendThenRollOverToNewSegments() throws IOException {
+
+        try (var journal = new Journal(journalDirectory, 64)) {
+
+            for (int i = 0; i < 5; i++) {
+                journal.append(TEXT_CONTENT + i, new TextStrategy());
+            }
+
+            assertEquals(5, journal.read(5).getSegment());
+            assertEquals(6, journalDirectory.list().length);
+        }
+    }
+
+    @Test
+    void givenReopenedJournalWhenReadThenReturnPreviouslyAppendedRecords() throws IOException {
+
+        for (int i = 0; i < 3; i++) {
+            try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+                journal.append(TEXT_CONTENT + i, new TextStrategy());
+            }
+        }
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+            assertEquals(3, journal.getRecordCount());
+            assertEquals("test_text content2.txt", journal.read(3).getName());
+        }
+    }
+
+    @Test
+    void givenMissingIndexWhenOpenJournalThenRebuildIndexFromSegments() throws IOException {
+
+        try (var journal = new Journal(journalDirectory, 64)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(TEXT_CONTENT + i, new TextStrategy());
+            }
+        }
+
+        assertTrue(new File(journalDirectory, Journal.INDEX_FILE_NAME).delete());
+
+        try (var journal = new Journal(journalDirectory, 64)) {
+            assertEquals(3, journal.getRecordCount());
+            assertEquals("test_text content1.txt", journal.read(2).getName());
+        }
+    }
+
+    @Test
+    void givenAppendFailedMidPayloadWhenRebuildIndexThenIgnoreUncommittedRecord() throws IOException {
+
+        var failingStrategy = new TextStrategy() {
+
+            @Override
+            public void saveToChannel(Object data, WritableByteChannel channel) throws IOException {
+                channel.write(ByteBuffer.wrap(new byte[] { 'b', 'o' }));
+                throw new IOException("boom");
+            }
+
+        };
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+            journal.append(TEXT_CONTENT, new TextStrategy());
+            assertThrows(IOException.class, () -> journal.append("boom", failingStrategy));
+        }
+
+        assertTrue(new File(journalDirectory, Journal.INDEX_FILE_NAME).delete());
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+            assertEquals(1, journal.getRecordCount());
+            assertThrows(IOException.class, () -> journal.read(2));
+        }
+    }
+
+    @Test
+    void givenUnderestimatedSizeWhenAppendPastLimitThenMoveRecordToNewSegment() throws IOException {
+
+        var underestimatingStrategy = new TextStrategy() {
+
+            @Override
+            public long estimateSize(Object data) {
+                return 0;
+            }
+
+        };
+        var largeText = TEXT_CONTENT.repeat(20);
+        var exportFile = createTempFile("temp", ".txt");
+        exportFile.deleteOnExit();
+
+        try (var journal = new Journal(journalDirectory, 200)) {
+            journal.append(TEXT_CONTENT, new TextStrategy());
+            journal.append(largeText, underestimatingStrategy);
+
+            assertEquals(2, journal.read(2).getSegment());
+            assertTrue(new File(journalDirectory, "00000001.seg").length() <= 200);
+            journal.export(2, exportFile);
+            assertEquals(largeText, readString(exportFile.toPath()));
+        }
+
+        assertTrue(new File(journalDirectory, Journal.INDEX_FILE_NAME).delete());
+
+        try (var journal = new Journal(journalDirectory, 200)) {
+            assertEquals(2, journal.getRecordCount());
+            assertEquals(2, journal.read(2).getSegment());
+        }
+    }
+
+    @Test
+    void givenCorruptedPayloadWhenExportThenThrowIoException() throws IOException {
+
+        var exportFile = createTempFile("temp", ".txt");
+        exportFile.deleteOnExit();
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+
+            long sequence = journal.append(TEXT_CONTENT, new TextStrategy());
+            var record = journal.read(sequence);
+
+            try (var segment = new RandomAccessFile(new File(journalDirectory, "00000001.seg"), "rw")) {
+                segment.seek(record.getPayloadOffset());
+                segment.write('X');
+            }
+
+            assertThrows(IOException.class, () -> journal.export(sequence, exportFile));
+        }
+    }
+
+    @Test
+    void givenUnknownSequenceWhenReadThenThrowIoException() throws IOException {
+
+        try (var journal = new Journal(journalDirectory, SEGMENT_SIZE)) {
+            assertThrows(IOException.class, () -> journal.read(1));
+        }
+    }
+
+    private static File createTemporaryDirectory(String prefix) {
+
+        var systemTemporaryDirectory = System.getProperty("java.io.tmpdir");
+        var temporaryDirectory = new File(systemTemporaryDirectory, prefix + Math.random());
+        temporaryDirectory.mkdir();
+        return temporaryDirectory;
+    }
+
+    private static void deleteDirectory(File directory) {
+
+        for (var file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+}
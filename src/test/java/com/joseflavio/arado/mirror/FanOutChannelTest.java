@@ -0,0 +1,180 @@
+package com.joseflavio.arado.mirror;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutChannelTest {
+
+    private static final String CONTENT = "first chunk|second chunk|third chunk";
+
+    private final File directory;
+
+    FanOutChannelTest() {
+
+        var systemTemporaryDirectory = System.getProperty("java.io.tmpdir");
+        this.directory = new File(systemTemporaryDirectory, "TestFanOut-" + Math.random());
+        this.directory.mkdir();
+    }
+
+    @AfterEach
+    void afterEach() {
+
+        deleteDirectory(directory);
+    }
+
+    @Test
+    void givenMirrorsWhenWriteThenEveryDestinationReceivesSameBytes() throws IOException {
+
+        var primary = new File(directory, "primary.txt");
+        var mirror1 = new File(directory, "mirror1/primary.txt");
+        var mirror2 = new File(directory, "mirror2/nested/primary.txt");
+
+        List<TransferReport> reports;
+        try (var channel = new FanOutChannel(primary, List.of(mirror1, mirror2))) {
+            write(channel);
+            reports = channel.finish();
+        }
+
+        assertEquals(3, reports.size());
+        assertEquals(primary, reports.get(0).getDestination());
+        for (var report : reports) {
+            assertTrue(report.isSuccessful());
+            assertEquals(CONTENT.length(), report.getBytes());
+            assertEquals(CONTENT, readString(report.getDestination().toPath()));
+        }
+    }
+
+    @Test
+    void givenMirrorFallingBehindWhenFinishThenCatchUpFromPrimaryFile() throws IOException {
+
+        var primary = new File(directory, "primary.txt");
+        var mirror = new File(directory, "mirror/primary.txt");
+
+        List<TransferReport> reports;
+        try (var channel = new FanOutChannel(primary, List.of(mirror), 12)) {
+            write(channel);
+            reports = channel.finish();
+        }
+
+        assertTrue(reports.get(1).isSuccessful());
+        assertEquals(CONTENT, readString(mirror.toPath()));
+    }
+
+    @Test
+    void givenFailingMirrorWhenFinishThenReportFailureAndKeepOtherDestinations() throws IOException {
+
+        var primary = new File(directory, "primary.txt");
+        var blocker = new File(directory, "blocker");
+        writeString(blocker.toPath(), "not a directory");
+        var failingMirror = new File(blocker, "primary.txt");
+        var mirror = new File(directory, "mirror/primary.txt");
+
+        List<TransferReport> reports;
+        try (var channel = new FanOutChannel(primary, List.of(failingMirror, mirror))) {
+            write(channel);
+            reports = channel.finish();
+        }
+
+        assertTrue(reports.get(0).isSuccessful());
+        assertFalse(reports.get(1).isSuccessful());
+        assertTrue(reports.get(2).isSuccessful());
+        assertEquals(CONTENT, readString(primary.toPath()));
+        assertEquals(CONTENT, readString(mirror.toPath()));
+    }
+
+    @Test
+    void givenSlowMirrorWhenFinishTimesOutThenReportPendingAndCompleteInBackground() throws Exception {
+
+        var primary = new File(directory, "primary.bin");
+        var mirror = new File(directory, "mirror/primary.bin");
+        var chunk = new byte[1024 * 1024];
+        int chunks = 32;
+
+        List<TransferReport> reports;
+        try (var channel = new FanOutChannel(primary, List.of(mirror), 1)) {
+            for (int i = 0; i < chunks; i++) {
+                channel.write(ByteBuffer.wrap(chunk));
+            }
+            reports = channel.finish(Duration.ZERO);
+        }
+
+        assertTrue(reports.get(0).isSuccessful());
+        assertTrue(reports.get(1).isPending());
+        assertFalse(reports.get(1).isSuccessful());
+
+        for (int i = 0; i < 100 && mirror.length() < primary.length(); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(primary.length(), mirror.length());
+    }
+
+    // The mirror copies from the primary file, which is gone, so it fails either before finish() stops
+    // waiting for it or after; either way the failure is reported exactly once.
+    @Test
+    void givenMirrorFailingAfterFinishWhenFinishTimesOutThenWriteFailureLog() throws Exception {
+
+        var primary = new File(directory, "primary.txt");
+        var mirror = new File(directory, "mirror/primary.txt");
+        var failureLog = new File(directory, "failures.log");
+
+        List<TransferReport> reports;
+        try (var channel = new FanOutChannel(primary, List.of(mirror), failureLog, 1)) {
+            write(channel);
+            primary.delete();
+            reports = channel.finish(Duration.ZERO);
+        }
+
+        assertFalse(reports.get(1).isSuccessful());
+        if (reports.get(1).isPending()) {
+            for (int i = 0; i < 100 && failureLog.length() == 0; i++) {
+                Thread.sleep(100);
+            }
+            assertTrue(readString(failureLog.toPath()).startsWith(mirror.getPath() + ": "));
+        } else {
+            assertFalse(failureLog.exists());
+        }
+    }
+
+    @Test
+    void givenClosedChannelWhenWriteThenThrowIoException() throws IOException {
+
+        var channel = new FanOutChannel(new File(directory, "primary.txt"), List.of());
+        channel.close();
+
+        assertThrows(IOException.class, () -> channel.write(ByteBuffer.allocate(1)));
+    }
+
+    private static void write(FanOutChannel channel) throws IOException {
+
+        for (var chunk : CONTENT.split("(?<=\\|)")) {
+            channel.write(ByteBuffer.wrap(chunk.getBytes(UTF_8)));
+        }
+    }
+
+    private static void deleteDirectory(File directory) {
+
+        for (var file : directory.listFiles()) {
+            if (file.isDirectory()) {
+                deleteDirectory(file);
+            } else {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+}
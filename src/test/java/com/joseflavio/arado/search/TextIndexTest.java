@@ -0,0 +1,165 @@
+package com.joseflavio.arado.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextIndexTest {
+
+    private final File directory;
+
+    TextIndexTest() {
+
+        var systemTemporaryDirectory = System.getProperty("java.io.tmpdir");
+        this.directory = new File(systemTemporaryDirectory, "TestTextIndex-" + Math.random());
+        this.directory.mkdir();
+    }
+
+    @AfterEach
+    void afterEach() {
+
+        for (var file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    void givenSavedTextCapturesWhenSearchThenReturnMatchesByRecency() throws IOException {
+
+        TextIndex.add(save("0001 - first.txt", "Hello, World"), "Hello, World");
+        TextIndex.add(save("0002 - second.txt", "unrelated"), "unrelated");
+        TextIndex.add(save("0003 - third.txt", "hello again world"), "hello again world");
+        var textIndex = TextIndex.load(directory);
+
+        assertEquals(names("0003 - third.txt", "0001 - first.txt"), names(textIndex.search("WORLD hello")));
+        assertEquals(names("0003 - third.txt"), names(textIndex.search("again")));
+        assertEquals(List.of(), textIndex.search("hello missing"));
+    }
+
+    @Test
+    void givenReloadedIndexWhenSearchThenReturnPersistedPostings() throws IOException {
+
+        TextIndex.add(save("0001.txt", "persisted text"), "persisted text");
+
+        assertEquals(names("0001.txt"), names(TextIndex.load(directory).search("persisted")));
+    }
+
+    @Test
+    void givenAddedCapturesWhenOpenThenFoldChangeLogIntoIndex() throws IOException {
+
+        TextIndex.add(save("0001 - a.txt", "logged text"), "logged text");
+        TextIndex.add(save("0002 - b.txt", "more logged text"), "more logged text");
+
+        assertFalse(new File(directory, TextIndex.INDEX_FILE_NAME).exists());
+        assertTrue(new File(directory, TextIndex.LOG_FILE_NAME).exists());
+
+        var reopened = TextIndex.open(directory);
+
+        assertEquals(names("0002 - b.txt", "0001 - a.txt"), names(reopened.search("logged")));
+        assertTrue(new File(directory, TextIndex.INDEX_FILE_NAME).exists());
+        assertFalse(new File(directory, TextIndex.LOG_FILE_NAME).exists());
+    }
+
+    @Test
+    void givenReplacedCaptureWhenLoadThenKeepOnlyLatestLoggedText() throws IOException {
+
+        TextIndex.add(save("0001 - a.txt", "before"), "before");
+        TextIndex.add(save("0001 - a.txt", "after"), "after");
+
+        var textIndex = TextIndex.load(directory);
+
+        assertEquals(List.of(), textIndex.search("before"));
+        assertEquals(names("0001 - a.txt"), names(textIndex.search("after")));
+    }
+
+    @Test
+    void givenLargeChangeLogWhenAddThenFoldLogIntoIndex() throws IOException {
+
+        var text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            text.append("token").append(i).append(' ');
+        }
+        TextIndex.add(save("0001 - large.txt", text.toString()), text.toString());
+
+        assertTrue(new File(directory, TextIndex.INDEX_FILE_NAME).exists());
+        assertFalse(new File(directory, TextIndex.LOG_FILE_NAME).exists());
+        assertEquals(names("0001 - large.txt"), names(TextIndex.load(directory).search("token99999")));
+    }
+
+    @Test
+    void givenMissingIndexWhenOpenThenRebuildFromNumberedTextFiles() throws IOException {
+
+        save("0001 - a.txt", "alpha beta");
+        save("0002 - b.txt", "beta gamma");
+        save("notes.txt", "beta");
+
+        var textIndex = TextIndex.open(directory);
+
+        assertEquals(names("0002 - b.txt", "0001 - a.txt"), names(textIndex.search("beta")));
+        assertTrue(new File(directory, TextIndex.INDEX_FILE_NAME).exists());
+    }
+
+    @Test
+    void givenChangedAndDeletedFilesWhenOpenThenUpdateStaleEntries() throws IOException {
+
+        var first = save("0001 - a.txt", "alpha");
+        var second = save("0002 - b.txt", "alpha");
+        TextIndex.add(first, "alpha");
+        TextIndex.add(second, "alpha");
+
+        assertTrue(first.delete());
+        save("0002 - b.txt", "omega and more");
+        second.setLastModified(second.lastModified() + 2000);
+
+        var refreshed = TextIndex.open(directory);
+
+        assertEquals(List.of(), refreshed.search("alpha"));
+        assertEquals(names("0002 - b.txt"), names(refreshed.search("omega")));
+    }
+
+    @Test
+    void givenShardedCapturesWhenSearchTreeThenMergeShardsByRecency() throws IOException {
+
+        new File(directory, "0001-0002").mkdir();
+        new File(directory, "0003-0004").mkdir();
+        save("0001-0002/0002 - a.txt", "sharded text");
+        save("0003-0004/0003 - b.txt", "sharded text");
+        save("0001-0002/0001 - c.txt", "other");
+
+        var found = TextIndex.searchTree(directory, "sharded");
+
+        assertEquals(names("0003 - b.txt", "0002 - a.txt"), names(found));
+        for (var shard : directory.listFiles(File::isDirectory)) {
+            for (var file : shard.listFiles()) {
+                file.delete();
+            }
+        }
+    }
+
+    private File save(String name, String text) throws IOException {
+
+        var file = new File(directory, name);
+        writeString(file.toPath(), text);
+        return file;
+    }
+
+    private static List<String> names(String... names) {
+
+        return List.of(names);
+    }
+
+    private static List<String> names(List<File> files) {
+
+        return files.stream().map(File::getName).toList();
+    }
+
+}
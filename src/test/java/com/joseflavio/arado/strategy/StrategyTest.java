@@ -0,0 +1,120 @@
+package com.joseflavio.arado.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import static java.awt.image.BufferedImage.TYPE_USHORT_565_RGB;
+import static java.io.File.createTempFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StrategyTest {
+
+    private static final String TEXT_CONTENT = "test/text\ncontent ção";
+
+    @Test
+    void givenTextWhenSaveToChannelThenWriteSameBytesAsSaveToFile() throws IOException {
+
+        var strategy = new TextStrategy();
+        var text = TEXT_CONTENT + " \uD83D\uDE00";
+        assertSameOutput(strategy, text);
+        assertEquals(text.getBytes(UTF_8).length, strategy.estimateSize(text));
+    }
+
+    @Test
+    void givenImageWhenSaveToChannelThenWriteSameBytesAsSaveToFile() throws IOException {
+
+        var image = new BufferedImage(10, 10, TYPE_INT_RGB);
+        image.setRGB(1, 2, 0x123456);
+        assertSameOutput(new ImageStrategy(), image);
+    }
+
+    @Test
+    void givenNoisyImagesWhenEstimateSizeThenCoverIncompressibleOutput() throws IOException {
+
+        var strategy = new ImageStrategy();
+        for (int type : new int[] { TYPE_INT_RGB, TYPE_INT_ARGB, TYPE_USHORT_565_RGB }) {
+            var image = createNoisyImage(1000, 1000, type);
+            long size = assertSameOutput(strategy, image);
+            long estimate = strategy.estimateSize(image);
+            assertTrue(estimate >= size, "type " + type + ": " + estimate + " < " + size);
+        }
+    }
+
+    @Test
+    void givenFileWhenSaveToChannelThenTransferFileContent() throws IOException {
+
+        var file = createTempFile("temp", null);
+        file.deleteOnExit();
+        writeString(file.toPath(), TEXT_CONTENT);
+
+        var strategy = new FileStrategy();
+        assertSameOutput(strategy, file);
+        assertEquals(file.length(), strategy.estimateSize(file));
+    }
+
+    @Test
+    void givenStrategyWithoutChannelSupportWhenSaveToChannelThenAdaptFromSaveToFile() throws IOException {
+
+        var textStrategy = new TextStrategy();
+        Strategy strategy = new Strategy() {
+
+            @Override
+            public String suggestName(Object data) {
+                return textStrategy.suggestName(data);
+            }
+
+            @Override
+            public String suggestFileExtension(Object data) {
+                return textStrategy.suggestFileExtension(data);
+            }
+
+            @Override
+            public void saveToFile(Object data, File destination) throws IOException {
+                textStrategy.saveToFile(data, destination);
+            }
+
+        };
+
+        assertSameOutput(strategy, TEXT_CONTENT);
+        assertEquals(- 1, strategy.estimateSize(TEXT_CONTENT));
+    }
+
+    private static BufferedImage createNoisyImage(int width, int height, int type) {
+
+        var random = new Random(42);
+        var image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static long assertSameOutput(Strategy strategy, Object data) throws IOException {
+
+        var file = createTempFile("temp", null);
+        file.deleteOnExit();
+        strategy.saveToFile(data, file);
+
+        var output = new ByteArrayOutputStream();
+        strategy.saveToChannel(data, Channels.newChannel(output));
+
+        assertArrayEquals(readAllBytes(file.toPath()), output.toByteArray());
+        return output.size();
+    }
+
+}